@@ -0,0 +1,18 @@
+package com.yukami.backpacktab.core.layout;
+
+/**
+ * Corner of the container screen the tab strip is attached to.
+ */
+public enum TabPosition {
+    TOP_LEFT,
+    TOP_RIGHT,
+    BOTTOM_LEFT,
+    BOTTOM_RIGHT;
+
+    /**
+     * Returns true if the strip hangs below the screen.
+     */
+    public boolean isBottom() {
+        return this == BOTTOM_LEFT || this == BOTTOM_RIGHT;
+    }
+}
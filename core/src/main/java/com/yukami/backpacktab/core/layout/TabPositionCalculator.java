@@ -1,6 +1,4 @@
-package com.yukami.backpacktab.client.util;
-
-import com.yukami.backpacktab.client.config.TabConfig;
+package com.yukami.backpacktab.core.layout;
 
 public class TabPositionCalculator {
     
@@ -24,7 +22,7 @@ public class TabPositionCalculator {
         }
     }
     
-    public static TabLayout calculateLayout(TabConfig.TabPosition position, int screenLeft, int screenTop, 
+    public static TabLayout calculateLayout(TabPosition position, int screenLeft, int screenTop, 
                                           int screenWidth, int screenHeight, int tabWidth, int tabHeight) {
         
         return switch (position) {
@@ -0,0 +1,52 @@
+package com.yukami.backpacktab.core.layout;
+
+/**
+ * Sprite lookup in the creative inventory tab texture.
+ */
+public class TabSprites {
+    
+    /**
+     * Get sprite coordinates based on position and state
+     */
+    public static SpriteCoords getSpriteCoords(TabPosition position, boolean active, boolean isFirstTab) {
+        return switch (position) {
+            case TOP_LEFT -> {
+                if (active) {
+                    yield isFirstTab ? new SpriteCoords(0, 32) : new SpriteCoords(26, 32); // [2,1] or [2,2]
+                } else {
+                    yield new SpriteCoords(0, 0); // [1,1] universal disabled
+                }
+            }
+            case TOP_RIGHT -> {
+                if (active) {
+                    yield isFirstTab ? new SpriteCoords(156, 32) : new SpriteCoords(130, 32); // [2,7] or [2,6]
+                } else {
+                    yield new SpriteCoords(0, 0); // [1,1] universal disabled
+                }
+            }
+            case BOTTOM_LEFT -> {
+                if (active) {
+                    yield isFirstTab ? new SpriteCoords(0, 96) : new SpriteCoords(26, 96); // [4,1] or [4,2]
+                } else {
+                    yield new SpriteCoords(0, 64); // [3,1] disabled bottom left
+                }
+            }
+            case BOTTOM_RIGHT -> {
+                if (active) {
+                    yield isFirstTab ? new SpriteCoords(156, 96) : new SpriteCoords(130, 96); // [4,7] or [4,6]
+                } else {
+                    yield new SpriteCoords(156, 64); // [3,7] disabled bottom right
+                }
+            }
+        };
+    }
+    
+    public static class SpriteCoords {
+        public final int u, v;
+        
+        public SpriteCoords(int u, int v) {
+            this.u = u;
+            this.v = v;
+        }
+    }
+}
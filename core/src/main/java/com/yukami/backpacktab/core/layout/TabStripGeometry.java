@@ -0,0 +1,264 @@
+package com.yukami.backpacktab.core.layout;
+
+import java.util.Arrays;
+
+/**
+ * Screen-space geometry of a tab strip: tab rectangles, sprite UVs and a hit-test index.
+ * Built once per tab list and screen size; lookups are array reads with no allocation.
+ * When the tabs don't fit on screen only a window of them gets a slot, and one slot is taken by
+ * scroll arrows. Per-slot getters take slot indices; {@link #getTabIndex} maps a slot to its tab.
+ */
+public class TabStripGeometry {
+    public static final int TAB_WIDTH = 28;
+    public static final int TAB_HEIGHT = 32;
+    public static final int TAB_SPACING = TAB_WIDTH - 2;
+    public static final int TAB_TEXTURE_WIDTH = 26;
+    public static final int TAB_TEXTURE_HEIGHT = 32;
+    public static final int ARROW_WIDTH = 12;
+    public static final int ARROW_HEIGHT = 16;
+    public static final int ARROW_BACK = 0;
+    public static final int ARROW_FORWARD = 1;
+
+    private final int tabY;
+    private final int[] tabIndex;
+    private final int[] tabX;
+    private final int[] renderY;
+    private final int[] renderHeight;
+    private final int[] spriteU;
+    private final int[] spriteV;
+
+    // Scroll state; arrows are only shown when not every tab fits
+    private final int scrollOffset;
+    private final int maxScroll;
+    private final boolean hasArrows;
+    private final int arrowBackX;
+    private final int arrowForwardX;
+
+    // Hit-test index: for every pixel column of the strip, the first tab covering it (or -1)
+    private final int hitMinX;
+    private final int[] hitColumns;
+
+    private TabStripGeometry(int tabY, int[] tabIndex, int[] tabX, int[] renderY, int[] renderHeight, int[] spriteU, int[] spriteV,
+                             int scrollOffset, int maxScroll, boolean hasArrows, int arrowBackX, int arrowForwardX) {
+        this.tabY = tabY;
+        this.tabIndex = tabIndex;
+        this.tabX = tabX;
+        this.renderY = renderY;
+        this.renderHeight = renderHeight;
+        this.spriteU = spriteU;
+        this.spriteV = spriteV;
+        this.scrollOffset = scrollOffset;
+        this.maxScroll = maxScroll;
+        this.hasArrows = hasArrows;
+        this.arrowBackX = arrowBackX;
+        this.arrowForwardX = arrowForwardX;
+
+        int minX = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        for (int x : tabX) {
+            minX = Math.min(minX, x);
+            maxX = Math.max(maxX, x + TAB_WIDTH);
+        }
+        if (tabX.length == 0) {
+            minX = 0;
+            maxX = -1;
+        }
+        this.hitMinX = minX;
+        this.hitColumns = new int[maxX - minX + 1];
+        Arrays.fill(hitColumns, -1);
+        // Walk backwards so overlapping columns end up owned by the lower index, like the old linear scan
+        for (int i = tabX.length - 1; i >= 0; i--) {
+            Arrays.fill(hitColumns, tabX[i] - minX, tabX[i] - minX + TAB_WIDTH + 1, i);
+        }
+    }
+
+    /**
+     * Lays out a strip of tabs for a screen, without a viewport limit.
+     * @param position The configured strip position.
+     * @param active Active state of every tab, in strip order.
+     */
+    public static TabStripGeometry build(TabPosition position, int screenLeft, int screenTop, int screenWidth, int screenHeight,
+                                         boolean[] active) {
+        return build(position, screenLeft, screenTop, screenWidth, screenHeight, active, -1, 0);
+    }
+
+    /**
+     * Lays out the visible window of a strip of tabs for a screen.
+     * @param position The configured strip position.
+     * @param active Active state of every tab, in strip order.
+     * @param viewportWidth Width of the GUI-scaled window, or a negative value for no limit.
+     * @param scrollOffset Requested index of the first tab in the window; clamped to the valid range.
+     */
+    public static TabStripGeometry build(TabPosition position, int screenLeft, int screenTop, int screenWidth, int screenHeight,
+                                         boolean[] active, int viewportWidth, int scrollOffset) {
+        TabPositionCalculator.TabLayout layout = TabPositionCalculator.calculateLayout(
+            position, screenLeft, screenTop, screenWidth, screenHeight, TAB_WIDTH, TAB_HEIGHT
+        );
+
+        int total = active.length;
+        int capacity = TabWindow.capacity(layout, TAB_SPACING, TAB_TEXTURE_WIDTH, viewportWidth);
+        boolean hasArrows = total > capacity;
+        int windowSize = hasArrows ? Math.max(1, capacity - 1) : total; // The arrows take one slot
+        int maxScroll = Math.max(0, total - windowSize);
+        int offset = Math.max(0, Math.min(scrollOffset, maxScroll));
+        int activeIndex = -1;
+        for (int i = 0; i < total && activeIndex == -1; i++) {
+            if (active[i]) {
+                activeIndex = i;
+            }
+        }
+        int[] tabIndex = TabWindow.visibleTabs(total, windowSize, offset, activeIndex);
+
+        int count = tabIndex.length;
+        int[] tabX = new int[count];
+        int[] renderY = new int[count];
+        int[] renderHeight = new int[count];
+        int[] spriteU = new int[count];
+        int[] spriteV = new int[count];
+
+        for (int i = 0; i < count; i++) {
+            boolean isActive = active[tabIndex[i]];
+            // The first slot gets the first tab sprite, whatever tab is scrolled into it
+            TabSprites.SpriteCoords coords = TabSprites.getSpriteCoords(position, isActive, i == 0);
+
+            // Inactive tabs are clipped by 4px on the side facing the screen
+            int height = isActive ? TAB_TEXTURE_HEIGHT : TAB_TEXTURE_HEIGHT - 4;
+            int yOffset = !isActive && position.isBottom() ? 4 : 0;
+
+            tabX[i] = layout.getTabX(i, TAB_SPACING);
+            renderY[i] = layout.startY + yOffset;
+            renderHeight[i] = height;
+            spriteU[i] = coords.u;
+            spriteV[i] = coords.v + yOffset;
+        }
+
+        // Arrows share the slot after the last tab; the back arrow is the one nearer the strip start
+        int arrowSlotX = layout.getTabX(count, TAB_SPACING);
+        int nearX = layout.rightToLeft ? arrowSlotX + TAB_TEXTURE_WIDTH - ARROW_WIDTH : arrowSlotX;
+        int farX = layout.rightToLeft ? arrowSlotX : arrowSlotX + TAB_TEXTURE_WIDTH - ARROW_WIDTH;
+        return new TabStripGeometry(layout.startY, tabIndex, tabX, renderY, renderHeight, spriteU, spriteV,
+            offset, maxScroll, hasArrows, nearX, farX);
+    }
+
+    /**
+     * Returns the slot under the given point (full tab bounds), or -1.
+     */
+    public int hitTest(double mouseX, double mouseY) {
+        if (mouseY < tabY || mouseY > tabY + TAB_HEIGHT) {
+            return -1;
+        }
+        int column = (int) Math.floor(mouseX) - hitMinX;
+        if (column < 0 || column >= hitColumns.length) {
+            return -1;
+        }
+        return hitColumns[column];
+    }
+
+    /**
+     * Returns the slot whose visible sprite is under the given point, or -1.
+     */
+    public int hoveredSlot(int mouseX, int mouseY) {
+        int index = hitTest(mouseX, mouseY);
+        if (index == -1 || mouseY < renderY[index] || mouseY >= renderY[index] + renderHeight[index]) {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns {@link #ARROW_BACK} or {@link #ARROW_FORWARD} for the scroll arrow under the point, or -1.
+     */
+    public int arrowHitTest(double mouseX, double mouseY) {
+        if (!hasArrows || mouseY < getArrowY() || mouseY >= getArrowY() + ARROW_HEIGHT) {
+            return -1;
+        }
+        if (mouseX >= arrowBackX && mouseX < arrowBackX + ARROW_WIDTH) {
+            return ARROW_BACK;
+        }
+        if (mouseX >= arrowForwardX && mouseX < arrowForwardX + ARROW_WIDTH) {
+            return ARROW_FORWARD;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the number of visible tabs.
+     */
+    public int getSlotCount() {
+        return tabX.length;
+    }
+
+    /**
+     * Returns the index in the full tab list of the tab shown in a slot.
+     */
+    public int getTabIndex(int slot) {
+        return tabIndex[slot];
+    }
+
+    public int getScrollOffset() {
+        return scrollOffset;
+    }
+
+    public int getMaxScroll() {
+        return maxScroll;
+    }
+
+    public boolean hasArrows() {
+        return hasArrows;
+    }
+
+    public int getArrowX(int arrow) {
+        return arrow == ARROW_BACK ? arrowBackX : arrowForwardX;
+    }
+
+    public int getArrowY() {
+        return tabY + (TAB_TEXTURE_HEIGHT - ARROW_HEIGHT) / 2;
+    }
+
+    /**
+     * Left edge of the area covered by tab sprites and icons.
+     */
+    public int getBoundsLeft() {
+        return tabX.length == 0 ? 0 : hitMinX;
+    }
+
+    /**
+     * Width of the area covered by tab sprites and icons, 0 for an empty strip.
+     */
+    public int getBoundsWidth() {
+        // The hit index spans TAB_WIDTH + 1 columns past the last tab, the sprites only TAB_TEXTURE_WIDTH
+        return tabX.length == 0 ? 0 : hitColumns.length - (TAB_WIDTH + 1 - TAB_TEXTURE_WIDTH);
+    }
+
+    public int getBoundsTop() {
+        return tabY;
+    }
+
+    public int getBoundsHeight() {
+        return TAB_TEXTURE_HEIGHT;
+    }
+
+    public int getTabX(int index) {
+        return tabX[index];
+    }
+
+    public int getTabY() {
+        return tabY;
+    }
+
+    public int getRenderY(int index) {
+        return renderY[index];
+    }
+
+    public int getRenderHeight(int index) {
+        return renderHeight[index];
+    }
+
+    public int getSpriteU(int index) {
+        return spriteU[index];
+    }
+
+    public int getSpriteV(int index) {
+        return spriteV[index];
+    }
+}
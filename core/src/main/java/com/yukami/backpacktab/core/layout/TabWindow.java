@@ -0,0 +1,52 @@
+package com.yukami.backpacktab.core.layout;
+
+/**
+ * Chooses which tabs of a long strip are shown: a scrollable window of consecutive tabs, with the
+ * active tab pinned at the nearer edge when it is scrolled out of the window.
+ */
+public class TabWindow {
+
+    /**
+     * Returns how many tabs fit between the strip start and the edge of the viewport.
+     * @param viewportWidth Width of the GUI-scaled window, or a negative value for no limit.
+     */
+    public static int capacity(TabPositionCalculator.TabLayout layout, int spacing, int tabWidth, int viewportWidth) {
+        if (viewportWidth < 0) {
+            return Integer.MAX_VALUE;
+        }
+        // Right-to-left strips grow towards x = 0, left-to-right strips towards the viewport width
+        int room = layout.rightToLeft ? layout.startX + tabWidth : viewportWidth - layout.startX;
+        return Math.max(1, (room - tabWidth) / spacing + 1);
+    }
+
+    /**
+     * Returns the tab indices to show, in slot order.
+     * @param total Number of tabs in the strip.
+     * @param windowSize Number of slots available.
+     * @param offset Index of the first tab in the window, already clamped.
+     * @param activeIndex Index of the active tab, or -1.
+     */
+    public static int[] visibleTabs(int total, int windowSize, int offset, int activeIndex) {
+        int count = Math.min(total, windowSize);
+        int[] tabs = new int[count];
+        boolean pinned = activeIndex >= 0 && (activeIndex < offset || activeIndex >= offset + count) && count > 0;
+        if (pinned && activeIndex < offset) {
+            // Active tab is before the window: pin it in the first slot
+            tabs[0] = activeIndex;
+            for (int slot = 1; slot < count; slot++) {
+                tabs[slot] = offset + slot - 1;
+            }
+        } else if (pinned) {
+            // Active tab is after the window: pin it in the last slot
+            for (int slot = 0; slot < count - 1; slot++) {
+                tabs[slot] = offset + slot;
+            }
+            tabs[count - 1] = activeIndex;
+        } else {
+            for (int slot = 0; slot < count; slot++) {
+                tabs[slot] = offset + slot;
+            }
+        }
+        return tabs;
+    }
+}
@@ -0,0 +1,79 @@
+package com.yukami.backpacktab.core.open;
+
+import com.yukami.backpacktab.core.view.PacketSink;
+import com.yukami.backpacktab.core.view.ScreenFactory;
+
+/**
+ * The packet sequences tabs use to open their target.
+ */
+public class TabOpenSequence {
+    /** Route name for the single switch packet handled by this mod's server half. */
+    public static final String ROUTE_SWITCH = "switch";
+    /** Route name for the close/interact sequence that works with unmodded servers. */
+    public static final String ROUTE_VANILLA = "vanilla";
+
+    /**
+     * Opens a container block from the menu with the given id.
+     * @param stashCarried Stashes the cursor stack; only run on the vanilla route.
+     * @return The route used, or null if the screen was closed because there is no position.
+     */
+    public static <P> String openContainer(P pos, int containerId, boolean serverSupported, Runnable stashCarried,
+                                           PacketSink<P> sink, ScreenFactory screens) {
+        if (pos == null) {
+            // If the container position is null, close the screen.
+            screens.closeScreen();
+            return null;
+        }
+        if (serverSupported) {
+            // The server runs this mod too: close, open and keep the cursor stack in one atomic packet
+            sink.switchToBlock(containerId, pos);
+            return ROUTE_SWITCH;
+        }
+
+        // Stash carried item in inventory slot before closing container
+        stashCarried.run();
+        // Inform the server that the current container is being closed to prevent desynchronization
+        sink.closeContainer(containerId);
+        // Simulate a right-click on the target block to open its GUI
+        sink.useBlock(pos);
+        return ROUTE_VANILLA;
+    }
+
+    /**
+     * Opens an equipped backpack from the menu with the given id.
+     * @param closeCurrent Close the open menu first, so the server doesn't blank the old screen while waiting.
+     * @return The route used.
+     */
+    public static <P> String openBackpack(String inventoryName, String identifier, int slot, int containerId,
+                                          boolean serverSupported, boolean closeCurrent, Runnable stashCarried, PacketSink<P> sink) {
+        if (serverSupported) {
+            sink.switchToBackpack(containerId, inventoryName, identifier, slot);
+            return ROUTE_SWITCH;
+        }
+
+        stashCarried.run();
+        if (closeCurrent) {
+            sink.closeContainer(containerId);
+        }
+        sink.openBackpack(inventoryName, identifier, slot);
+        return ROUTE_VANILLA;
+    }
+
+    /**
+     * Opens the survival inventory, which is a client-side screen.
+     * @param inPlayerInventory True if the open menu is already the player's inventory menu.
+     * @param canShowInventory False in game modes without a survival inventory screen.
+     */
+    public static <P> void openPlayerInventory(int containerId, boolean inPlayerInventory, boolean canShowInventory,
+                                               Runnable stashCarried, PacketSink<P> sink, ScreenFactory screens) {
+        // Stash carried item in inventory slot before opening the screen
+        stashCarried.run();
+        // If we are currently in a server-side container (not player inventory), close it first
+        if (!inPlayerInventory) {
+            sink.closeContainer(containerId);
+        }
+        if (canShowInventory) {
+            screens.openPlayerInventory();
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.yukami.backpacktab.core.session;
+
+/**
+ * Keeps the tab switch that has been sent to the server but hasn't produced its screen yet.
+ * Only one switch is in flight at a time; switches requested meanwhile are coalesced so that only
+ * the latest target is opened once the in-flight one lands. A switch that doesn't land within the
+ * timeout is abandoned, so a lost answer can't block switching for good.
+ * Switches are numbered; when the server echoes the number of the switch it is opening a screen for,
+ * the screen can be matched to its switch exactly instead of by its type.
+ * @param <K> Tab type.
+ */
+public class SwitchTracker<K> {
+    private final long timeoutNanos;
+
+    private int sequence = 0; // Last sequence number handed out
+    private boolean inFlight = false;
+    private K target = null;
+    private long startNanos = 0;
+    private K queued = null; // Latest target requested while the switch was in flight
+    private int answered = 0; // Last sequence number the server said it is opening a screen for
+
+    public SwitchTracker(long timeoutNanos) {
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    /**
+     * Checks whether a switch is still waiting for its screen, abandoning it once it timed out.
+     */
+    public boolean isInFlight(long nowNanos) {
+        if (inFlight && nowNanos - startNanos > timeoutNanos) {
+            inFlight = false;
+            target = null;
+        }
+        return inFlight;
+    }
+
+    /**
+     * Marks a switch to the given tab as sent. Any queued target is dropped, this one supersedes it.
+     * @return The sequence number of the new switch.
+     */
+    public int begin(K target, long nowNanos) {
+        sequence++;
+        inFlight = true;
+        this.target = target;
+        startNanos = nowNanos;
+        queued = null;
+        return sequence;
+    }
+
+    /**
+     * Remembers a target requested while a switch is in flight, replacing any earlier one.
+     */
+    public void coalesce(K target) {
+        queued = target;
+    }
+
+    /**
+     * A screen finished init while a switch may be in flight.
+     * @param matchesTarget True if the screen is what the in-flight target opens.
+     * @return The sequence number the screen completes, 0 if no switch is in flight, or -1 if the screen is stale
+     *         (the answer to an earlier, superseded request) and the switch stays in flight.
+     */
+    public int onScreenInit(boolean matchesTarget, long nowNanos) {
+        if (!isInFlight(nowNanos)) {
+            return 0;
+        }
+        if (!matchesTarget) {
+            return -1;
+        }
+        inFlight = false;
+        target = null;
+        return sequence;
+    }
+
+    /**
+     * The server accepted a switch and sends its screen next.
+     */
+    public void onAnswered(int sequence) {
+        answered = sequence;
+    }
+
+    /**
+     * Checks whether the server accepted the in-flight switch, so the next screen is its target.
+     */
+    public boolean isAnswered() {
+        return inFlight && answered == sequence;
+    }
+
+    /**
+     * Takes the coalesced target once nothing is in flight.
+     * @return The target to open next, or null.
+     */
+    public K takeQueued(long nowNanos) {
+        if (queued == null || isInFlight(nowNanos)) {
+            return null;
+        }
+        K next = queued;
+        queued = null;
+        return next;
+    }
+
+    public void reset() {
+        inFlight = false;
+        target = null;
+        queued = null;
+    }
+
+    public int getSequence() {
+        return sequence;
+    }
+
+    public K getQueued() {
+        return queued;
+    }
+
+    public K getTarget() {
+        return target;
+    }
+
+    public long getStartNanos() {
+        return startNanos;
+    }
+}
@@ -0,0 +1,123 @@
+package com.yukami.backpacktab.core.session;
+
+/**
+ * State machine behind the tab manager, driven by block clicks, screen inits, tab clicks and screen closes.
+ * @param <P> Block position type.
+ * @param <S> Screen type, compared by identity.
+ */
+public class TabSession<P, S> {
+    private S currentScreen = null;
+    private P storedBlockPos = null; // Store block pos when block GUI opens
+    private boolean tabSwitching = false; // Track if we're in the middle of a tab switch
+    private boolean fromBlockClick = false; // Track if the next screen is from a block click
+
+    /**
+     * A container block was right-clicked; its screen is expected next.
+     */
+    public void onContainerBlockClicked(P pos) {
+        storedBlockPos = pos;
+        fromBlockClick = true;
+    }
+
+    /**
+     * A container screen finished init. Must be followed by {@link #onScreenInitDone()}.
+     * @return True if this screen is the result of a tab switch, so existing active states are kept.
+     */
+    public boolean onScreenInit(S screen) {
+        currentScreen = screen;
+        return tabSwitching;
+    }
+
+    /**
+     * Resolves which container the base tab of a screen points at.
+     * @param playerInventoryScreen True for the survival inventory, which always gets the player tab.
+     * @return The container position, or null for the player tab.
+     */
+    public P getBaseContainer(boolean playerInventoryScreen) {
+        if (playerInventoryScreen) {
+            return null;
+        }
+        // A stored position from a right-click or from previous context (tab switching); otherwise the
+        // screen is an equipped backpack opened via hotkey/item use
+        return storedBlockPos;
+    }
+
+    /**
+     * Reset flags after screen opens
+     */
+    public void onScreenInitDone() {
+        tabSwitching = false;
+        fromBlockClick = false;
+    }
+
+    /**
+     * The screen that just finished init answers an earlier, superseded switch request, while the in-flight
+     * switch's screen is still coming. Called instead of {@link #onScreenInitDone()}: the switch stays in flight.
+     */
+    public void onStaleScreenInit() {
+        fromBlockClick = false;
+    }
+
+    /**
+     * A click on the managed screen may hit a tab.
+     */
+    public void beginTabClick() {
+        tabSwitching = true;
+    }
+
+    /**
+     * @param handled True if a tab consumed the click.
+     */
+    public void endTabClick(boolean handled) {
+        if (!handled) {
+            tabSwitching = false; // Reset if no tab was clicked
+        }
+    }
+
+    /**
+     * The clicked tab could not be opened, so no new screen is coming.
+     */
+    public void onTabUnavailable() {
+        tabSwitching = false;
+    }
+
+    /**
+     * A screen is closing.
+     * @return True if it was the managed screen closed by the player (not by a tab switch), so the session must reset.
+     */
+    public boolean onScreenClose(S screen) {
+        if (screen != currentScreen) {
+            return false;
+        }
+        boolean closedByPlayer = !tabSwitching;
+        currentScreen = null;
+        return closedByPlayer;
+    }
+
+    public void reset() {
+        storedBlockPos = null;
+        currentScreen = null;
+        tabSwitching = false;
+        fromBlockClick = false;
+    }
+
+    public void setStoredBlockPos(P pos) {
+        storedBlockPos = pos;
+    }
+
+    public P getStoredBlockPos() {
+        return storedBlockPos;
+    }
+
+    public S getCurrentScreen() {
+        return currentScreen;
+    }
+
+    public boolean isTabSwitching() {
+        return tabSwitching;
+    }
+
+    public boolean isFromBlockClick() {
+        return fromBlockClick;
+    }
+}
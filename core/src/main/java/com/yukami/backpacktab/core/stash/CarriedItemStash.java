@@ -0,0 +1,116 @@
+package com.yukami.backpacktab.core.stash;
+
+import com.yukami.backpacktab.core.view.InventoryView;
+import com.yukami.backpacktab.core.view.PacketSink;
+
+import java.util.Arrays;
+
+/**
+ * Bookkeeping for temporarily stashing the cursor stack during a tab switch, so closing a menu
+ * can't drop it. Every operation sends at most one click.
+ */
+public class CarriedItemStash {
+    private int stashedSlotIndex = -1; // Stores the inventory slot index where the item was stashed
+
+    // Player inventory slot -> screen slot lookup for the last menu seen, built once per menu
+    private Object mappedMenu = null;
+    private int[] screenSlotByInventorySlot = new int[0];
+
+    /**
+     * Stashes the carried stack in an empty inventory slot. Partial stacks are not used, since picking the
+     * merged stack back up would empty the inventory slot. If the inventory is full, the stack is parked in a
+     * free slot of the open storage container, where it stays; that stack is not restored to the cursor afterwards.
+     * @return The screen slot that was clicked, or -1 if nothing was sent.
+     */
+    public int stash(InventoryView view, PacketSink<?> sink) {
+        // Only stash if the player is actually carrying an item
+        if (!view.isCarrying()) {
+            return -1;
+        }
+
+        int inventorySlot = view.findFreeInventorySlot();
+        if (inventorySlot != -1) {
+            int screenSlot = findScreenSlotIndex(view, inventorySlot);
+            if (screenSlot != -1) {
+                sink.clickSlot(view.getContainerId(), screenSlot);
+                stashedSlotIndex = inventorySlot; // Remember where we stashed it
+                return screenSlot;
+            }
+        }
+
+        // Inventory is full: keep the stack in the open storage container rather than leaving it on the cursor
+        int containerSlot = findFreeContainerSlot(view);
+        if (containerSlot != -1) {
+            sink.clickSlot(view.getContainerId(), containerSlot);
+        }
+        return containerSlot;
+    }
+
+    /**
+     * Picks the stashed stack back up onto the cursor.
+     * @return The screen slot that was clicked, or -1 if nothing was sent.
+     */
+    public int unstash(InventoryView view, PacketSink<?> sink) {
+        // Only attempt to unstash if an item was previously stashed
+        if (stashedSlotIndex == -1) {
+            return -1;
+        }
+        int screenSlot = findScreenSlotIndex(view, stashedSlotIndex);
+        if (screenSlot != -1) {
+            sink.clickSlot(view.getContainerId(), screenSlot);
+        }
+        stashedSlotIndex = -1; // Reset the stashed slot
+        return screenSlot;
+    }
+
+    /**
+     * Forgets any stashed item and the cached slot lookup.
+     */
+    public void reset() {
+        stashedSlotIndex = -1;
+        mappedMenu = null;
+    }
+
+    public boolean isStashed() {
+        return stashedSlotIndex != -1;
+    }
+
+    /**
+     * Finds the screen slot for a player inventory slot. The lookup table is built once per menu,
+     * so repeated lookups are O(1).
+     * @return The screen slot index, or -1 if the menu doesn't show that inventory slot.
+     */
+    public int findScreenSlotIndex(InventoryView view, int inventorySlotIndex) {
+        Object menu = view.getMenuIdentity();
+        if (menu != mappedMenu) {
+            screenSlotByInventorySlot = buildSlotMap(view);
+            mappedMenu = menu;
+        }
+        if (inventorySlotIndex < 0 || inventorySlotIndex >= screenSlotByInventorySlot.length) {
+            return -1;
+        }
+        return screenSlotByInventorySlot[inventorySlotIndex];
+    }
+
+    private static int findFreeContainerSlot(InventoryView view) {
+        for (int i = 0; i < view.getSlotCount(); i++) {
+            if (view.getInventorySlotIndex(i) == -1 && view.acceptsCarried(i)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int[] buildSlotMap(InventoryView view) {
+        int[] map = new int[view.getInventorySize()];
+        Arrays.fill(map, -1);
+        for (int i = 0; i < view.getSlotCount(); i++) {
+            // Keep the first screen slot for each inventory slot
+            int inventorySlotIndex = view.getInventorySlotIndex(i);
+            if (inventorySlotIndex >= 0 && inventorySlotIndex < map.length && map[inventorySlotIndex] == -1) {
+                map[inventorySlotIndex] = i;
+            }
+        }
+        return map;
+    }
+}
@@ -0,0 +1,49 @@
+package com.yukami.backpacktab.core.tabs;
+
+import com.yukami.backpacktab.core.view.BlockLookup;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * Compiles the additionalTabBlocks config list into an identity set of blocks, so lookups are O(1)
+ * regardless of how many entries are configured.
+ * Supported entry formats:
+ * - modid:block_name  a single block
+ * - #namespace:tag    every block in the block tag
+ * - modid:*           every block registered by the mod
+ */
+public class AdditionalBlockRules {
+
+    /**
+     * @param onInvalid Receives entries whose lookup threw, with the exception; the entry is skipped.
+     * @return The matched blocks, compared by identity.
+     */
+    public static <B> Set<B> compile(List<? extends String> entries, BlockLookup<B> lookup, BiConsumer<String, Exception> onInvalid) {
+        Set<B> blocks = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (String entry : entries) {
+            if (entry == null || entry.isBlank()) {
+                continue;
+            }
+            String trimmed = entry.trim();
+            try {
+                if (trimmed.startsWith("#")) {
+                    lookup.forEachInTag(trimmed.substring(1), blocks::add);
+                } else if (trimmed.endsWith(":*")) {
+                    lookup.forEachInNamespace(trimmed.substring(0, trimmed.length() - 2), blocks::add);
+                } else {
+                    B block = lookup.getBlock(trimmed);
+                    if (block != null) {
+                        blocks.add(block);
+                    }
+                }
+            } catch (Exception e) {
+                onInvalid.accept(trimmed, e);
+            }
+        }
+        return blocks;
+    }
+}
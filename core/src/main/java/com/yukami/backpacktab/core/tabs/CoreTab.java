@@ -0,0 +1,22 @@
+package com.yukami.backpacktab.core.tabs;
+
+/**
+ * The part of a tab the core logic needs: identity and active state.
+ */
+public interface CoreTab {
+
+    /**
+     * Returns a key identifying what this tab opens, used to carry state across tab list rebuilds.
+     */
+    Object getTabKey();
+
+    /**
+     * Returns true if this tab is currently active
+     */
+    boolean isActive();
+
+    /**
+     * Sets the active state of this tab
+     */
+    void setActive(boolean active);
+}
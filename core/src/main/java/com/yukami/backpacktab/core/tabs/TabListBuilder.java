@@ -0,0 +1,63 @@
+package com.yukami.backpacktab.core.tabs;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides the order and active states of the tab strip.
+ */
+public class TabListBuilder {
+
+    /**
+     * Builds the tab strip: the base tab first, then extra container tabs, then equipped backpacks.
+     * Only shows tabs if there's at least one equipped backpack.
+     * Tabs whose key was present in the previous strip get its active state back. On an initial screen
+     * open (preserveActive false) the base tab is made active instead, or the first backpack if there is
+     * no base tab.
+     * @param baseTab The tab of the screen being opened, or null.
+     * @param containerTabs Recently used and nearby containers.
+     * @param equippedTabs One tab per equipped backpack.
+     * @param previousTabs The strip before the rebuild.
+     * @param preserveActive Keep the active states of existing tabs (tab switches and live refreshes).
+     * @return The new strip, empty if no backpack is equipped.
+     */
+    public static <T extends CoreTab> List<T> build(T baseTab, List<? extends T> containerTabs, List<? extends T> equippedTabs,
+                                                    List<? extends T> previousTabs, boolean preserveActive) {
+        // REQUIREMENT: Only show tabs if there's an equipped backpack
+        if (equippedTabs.isEmpty()) {
+            return new ArrayList<>(0);
+        }
+
+        // Preserve existing tab active states, keyed by what each tab opens
+        Map<Object, Boolean> previousActive = new HashMap<>();
+        for (T tab : previousTabs) {
+            previousActive.put(tab.getTabKey(), tab.isActive());
+        }
+
+        List<T> tabs = new ArrayList<>(1 + containerTabs.size() + equippedTabs.size());
+        if (baseTab != null) {
+            tabs.add(baseTab);
+        }
+        tabs.addAll(containerTabs);
+        tabs.addAll(equippedTabs);
+
+        for (T tab : tabs) {
+            Boolean wasActive = previousActive.get(tab.getTabKey());
+            if (wasActive != null) {
+                tab.setActive(wasActive);
+            }
+        }
+
+        // Only set active states on initial screen open
+        if (!preserveActive) {
+            for (int i = 0; i < tabs.size(); i++) {
+                T tab = tabs.get(i);
+                // Base tab is active; first backpack only if there's no base tab
+                tab.setActive(baseTab != null ? tab == baseTab : tab == equippedTabs.get(0));
+            }
+        }
+        return tabs;
+    }
+}
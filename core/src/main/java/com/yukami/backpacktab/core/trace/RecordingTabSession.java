@@ -0,0 +1,126 @@
+package com.yukami.backpacktab.core.trace;
+
+import com.yukami.backpacktab.core.session.TabSession;
+
+import java.util.function.ToLongFunction;
+
+/**
+ * Tab session that can record every input call into a trace for later replay.
+ * When not recording, each call costs one null check.
+ */
+public class RecordingTabSession<P, S> extends TabSession<P, S> {
+    private final ToLongFunction<P> posEncoder;
+    private TraceRecorder recorder = null;
+
+    /**
+     * @param posEncoder Packs a block position into a long.
+     */
+    public RecordingTabSession(ToLongFunction<P> posEncoder) {
+        this.posEncoder = posEncoder;
+    }
+
+    public void startRecording(int maxEvents) {
+        recorder = new TraceRecorder(maxEvents);
+    }
+
+    /**
+     * Stops recording.
+     * @return The recorder with the recorded events, or null if nothing was being recorded.
+     */
+    public TraceRecorder stopRecording() {
+        TraceRecorder stopped = recorder;
+        recorder = null;
+        return stopped;
+    }
+
+    public boolean isRecording() {
+        return recorder != null;
+    }
+
+    /**
+     * Returns the number of events recorded so far, or 0 when not recording.
+     */
+    public int getRecordedCount() {
+        return recorder != null ? recorder.getEvents().size() : 0;
+    }
+
+    @Override
+    public void onContainerBlockClicked(P pos) {
+        if (recorder != null) {
+            recorder.recordBlockClick(posEncoder.applyAsLong(pos));
+        }
+        super.onContainerBlockClicked(pos);
+    }
+
+    @Override
+    public boolean onScreenInit(S screen) {
+        if (recorder != null) {
+            recorder.recordScreen(TraceEvent.Kind.SCREEN_INIT, screen);
+        }
+        return super.onScreenInit(screen);
+    }
+
+    @Override
+    public void onScreenInitDone() {
+        if (recorder != null) {
+            recorder.record(TraceEvent.Kind.SCREEN_INIT_DONE);
+        }
+        super.onScreenInitDone();
+    }
+
+    @Override
+    public void onStaleScreenInit() {
+        if (recorder != null) {
+            recorder.record(TraceEvent.Kind.STALE_SCREEN_INIT);
+        }
+        super.onStaleScreenInit();
+    }
+
+    @Override
+    public void beginTabClick() {
+        if (recorder != null) {
+            recorder.record(TraceEvent.Kind.TAB_CLICK_BEGIN);
+        }
+        super.beginTabClick();
+    }
+
+    @Override
+    public void endTabClick(boolean handled) {
+        if (recorder != null) {
+            recorder.recordTabClickEnd(handled);
+        }
+        super.endTabClick(handled);
+    }
+
+    @Override
+    public void onTabUnavailable() {
+        if (recorder != null) {
+            recorder.record(TraceEvent.Kind.TAB_UNAVAILABLE);
+        }
+        super.onTabUnavailable();
+    }
+
+    @Override
+    public boolean onScreenClose(S screen) {
+        if (recorder != null) {
+            recorder.recordScreen(TraceEvent.Kind.SCREEN_CLOSE, screen);
+        }
+        return super.onScreenClose(screen);
+    }
+
+    @Override
+    public void reset() {
+        if (recorder != null) {
+            recorder.record(TraceEvent.Kind.RESET);
+        }
+        super.reset();
+    }
+
+    @Override
+    public void setStoredBlockPos(P pos) {
+        if (recorder != null) {
+            recorder.recordStorePos(pos != null, pos != null ? posEncoder.applyAsLong(pos) : 0L);
+        }
+        super.setStoredBlockPos(pos);
+    }
+}
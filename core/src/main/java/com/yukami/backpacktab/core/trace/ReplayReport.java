@@ -0,0 +1,127 @@
+package com.yukami.backpacktab.core.trace;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Result of replaying a trace: throughput, the final session state and invariant violations.
+ * Every violation is counted; only the first few are kept with their event for inspection.
+ */
+public class ReplayReport {
+    private static final int MAX_KEPT_VIOLATIONS = 20;
+
+    public enum ViolationKind {
+        /** A tab switch stayed in flight longer than the timeout, or never finished. */
+        STUCK_SWITCH,
+        /** A tab click started while a switch was already in flight (e.g. a second click under lag). */
+        DOUBLE_SWITCH,
+        /** A tab click started with no managed screen. */
+        CLICK_WITHOUT_SCREEN,
+        /** A tab click ended without starting, or started without ending. */
+        UNBALANCED_CLICK,
+        /** A new screen was initialized while another managed screen was open and no switch was running. */
+        SCREEN_REPLACED,
+        /** Switch or block click flags survived a finished screen init. */
+        FLAGS_NOT_CLEARED,
+        /** The player closed the managed screen but the session wasn't reset. */
+        MISSING_RESET,
+        /** A reset left state behind. */
+        DIRTY_RESET,
+        /** A screen was marked stale although no switch was in flight. */
+        STALE_WITHOUT_SWITCH
+    }
+
+    public static class Violation {
+        public final ViolationKind kind;
+        public final int eventIndex; // -1 for violations found at the end of the trace
+        public final TraceEvent event;
+        public final String detail;
+
+        Violation(ViolationKind kind, int eventIndex, TraceEvent event, String detail) {
+            this.kind = kind;
+            this.eventIndex = eventIndex;
+            this.event = event;
+            this.detail = detail;
+        }
+
+        @Override
+        public String toString() {
+            return kind + " at " + (eventIndex >= 0 ? "#" + eventIndex + " (" + event + ")" : "end") + ": " + detail;
+        }
+    }
+
+    private final Map<ViolationKind, Integer> violationCounts = new EnumMap<>(ViolationKind.class);
+    private final List<Violation> violations = new ArrayList<>();
+    int eventCount;
+    int switchCount;
+    long elapsedNanos;
+    String finalState = "";
+
+    void addViolation(ViolationKind kind, int eventIndex, TraceEvent event, String detail) {
+        violationCounts.merge(kind, 1, Integer::sum);
+        if (violations.size() < MAX_KEPT_VIOLATIONS) {
+            violations.add(new Violation(kind, eventIndex, event, detail));
+        }
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Returns the number of tab clicks that started a switch.
+     */
+    public int getSwitchCount() {
+        return switchCount;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public double getEventsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : eventCount * 1e9 / elapsedNanos;
+    }
+
+    public double getSwitchesPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : switchCount * 1e9 / elapsedNanos;
+    }
+
+    public String getFinalState() {
+        return finalState;
+    }
+
+    public int getViolationCount() {
+        int total = 0;
+        for (int count : violationCounts.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    public Map<ViolationKind, Integer> getViolationCounts() {
+        return violationCounts;
+    }
+
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Formats the report as human readable lines.
+     */
+    public List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format(Locale.ROOT, "events: %d, switches: %d, elapsed: %.3fms", eventCount, switchCount, elapsedNanos / 1e6));
+        lines.add(String.format(Locale.ROOT, "throughput: %.0f events/s, %.0f switches/s", getEventsPerSecond(), getSwitchesPerSecond()));
+        lines.add("final state: " + finalState);
+        lines.add("violations: " + getViolationCount() + (violationCounts.isEmpty() ? "" : " " + violationCounts));
+        for (Violation violation : violations) {
+            lines.add("  " + violation);
+        }
+        return lines;
+    }
+}
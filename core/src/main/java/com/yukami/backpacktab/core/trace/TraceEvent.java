@@ -0,0 +1,79 @@
+package com.yukami.backpacktab.core.trace;
+
+/**
+ * One call into a {@link com.yukami.backpacktab.core.session.TabSession}, as recorded from a client or generated.
+ * Screens are numbered in the order they were first seen; 0 means no screen.
+ */
+public class TraceEvent {
+
+    public enum Kind {
+        BLOCK_CLICK,
+        STORE_POS,
+        SCREEN_INIT,
+        SCREEN_INIT_DONE,
+        TAB_CLICK_BEGIN,
+        TAB_CLICK_END,
+        TAB_UNAVAILABLE,
+        SCREEN_CLOSE,
+        RESET,
+        STALE_SCREEN_INIT // Appended so older trace files keep their kind ordinals
+    }
+
+    public final Kind kind;
+    public final long timeNanos; // Since the start of the trace
+    public final int screenId; // SCREEN_INIT and SCREEN_CLOSE
+    public final boolean hasPos; // BLOCK_CLICK always has one, STORE_POS may clear it
+    public final long pos; // Packed block position
+    public final boolean handled; // TAB_CLICK_END: a tab consumed the click
+
+    private TraceEvent(Kind kind, long timeNanos, int screenId, boolean hasPos, long pos, boolean handled) {
+        this.kind = kind;
+        this.timeNanos = timeNanos;
+        this.screenId = screenId;
+        this.hasPos = hasPos;
+        this.pos = pos;
+        this.handled = handled;
+    }
+
+    public static TraceEvent of(Kind kind, long timeNanos) {
+        return new TraceEvent(kind, timeNanos, 0, false, 0L, false);
+    }
+
+    public static TraceEvent blockClick(long timeNanos, long pos) {
+        return new TraceEvent(Kind.BLOCK_CLICK, timeNanos, 0, true, pos, false);
+    }
+
+    public static TraceEvent storePos(long timeNanos, boolean hasPos, long pos) {
+        return new TraceEvent(Kind.STORE_POS, timeNanos, 0, hasPos, hasPos ? pos : 0L, false);
+    }
+
+    public static TraceEvent screen(Kind kind, long timeNanos, int screenId) {
+        return new TraceEvent(kind, timeNanos, screenId, false, 0L, false);
+    }
+
+    public static TraceEvent tabClickEnd(long timeNanos, boolean handled) {
+        return new TraceEvent(Kind.TAB_CLICK_END, timeNanos, 0, false, 0L, handled);
+    }
+
+    /**
+     * Returns a copy of this event at another time.
+     */
+    public TraceEvent withTime(long timeNanos) {
+        return new TraceEvent(kind, timeNanos, screenId, hasPos, pos, handled);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder().append(timeNanos / 1000).append("us ").append(kind);
+        if (screenId != 0) {
+            builder.append(" screen=").append(screenId);
+        }
+        if (hasPos) {
+            builder.append(" pos=").append(pos);
+        }
+        if (kind == Kind.TAB_CLICK_END) {
+            builder.append(" handled=").append(handled);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,99 @@
+package com.yukami.backpacktab.core.trace;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compact binary trace file: a header, then one kind byte and a varint time delta per event, followed
+ * by only the fields that kind uses. A typical event takes 2-4 bytes.
+ */
+public class TraceFormat {
+    private static final int MAGIC = 0x59425454; // "YBTT"
+    private static final int VERSION = 1;
+
+    public static void write(OutputStream out, List<TraceEvent> events) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeByte(VERSION);
+        writeVarLong(data, events.size());
+        long lastTime = 0;
+        for (TraceEvent event : events) {
+            data.writeByte(event.kind.ordinal());
+            writeVarLong(data, Math.max(0, event.timeNanos - lastTime));
+            lastTime = Math.max(lastTime, event.timeNanos);
+            switch (event.kind) {
+                case BLOCK_CLICK -> data.writeLong(event.pos);
+                case STORE_POS -> {
+                    data.writeBoolean(event.hasPos);
+                    if (event.hasPos) {
+                        data.writeLong(event.pos);
+                    }
+                }
+                case SCREEN_INIT, SCREEN_CLOSE -> writeVarLong(data, event.screenId);
+                case TAB_CLICK_END -> data.writeBoolean(event.handled);
+                default -> {
+                }
+            }
+        }
+        data.flush();
+    }
+
+    public static List<TraceEvent> read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a tab trace file");
+        }
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported tab trace version " + version);
+        }
+        long count = readVarLong(data);
+        TraceEvent.Kind[] kinds = TraceEvent.Kind.values();
+        List<TraceEvent> events = new ArrayList<>((int) Math.min(count, 1 << 20));
+        long time = 0;
+        for (long i = 0; i < count; i++) {
+            int ordinal = data.readUnsignedByte();
+            if (ordinal >= kinds.length) {
+                throw new IOException("Unknown trace event kind " + ordinal);
+            }
+            TraceEvent.Kind kind = kinds[ordinal];
+            time += readVarLong(data);
+            events.add(switch (kind) {
+                case BLOCK_CLICK -> TraceEvent.blockClick(time, data.readLong());
+                case STORE_POS -> {
+                    boolean hasPos = data.readBoolean();
+                    yield TraceEvent.storePos(time, hasPos, hasPos ? data.readLong() : 0L);
+                }
+                case SCREEN_INIT, SCREEN_CLOSE -> TraceEvent.screen(kind, time, (int) readVarLong(data));
+                case TAB_CLICK_END -> TraceEvent.tabClickEnd(time, data.readBoolean());
+                default -> TraceEvent.of(kind, time);
+            });
+        }
+        return events;
+    }
+
+    private static void writeVarLong(DataOutputStream data, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            data.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        data.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream data) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = data.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint in tab trace");
+    }
+}
@@ -0,0 +1,154 @@
+package com.yukami.backpacktab.core.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates random but well-formed traces the way the tab manager drives its session: container
+ * clicks, tab switches with server lag between the click and the new screen, missed clicks,
+ * unavailable tabs and the player closing the screen. With a fuzz chance above 0 the sequence is
+ * then mutated (dropped, duplicated and swapped events, lag spikes, clicks during a switch) to
+ * provoke the ordering races seen under server lag.
+ */
+public class TraceGenerator {
+    private static final double MISS_CHANCE = 0.1;
+    private static final double UNAVAILABLE_CHANCE = 0.02;
+    private static final double CLOSE_CHANCE = 0.05;
+    private static final double CONTAINER_TAB_CHANCE = 0.4;
+    private static final double INSTANT_TAB_CHANCE = 0.2; // The player inventory opens without a server round trip
+    private static final double STALE_SCREEN_CHANCE = 0.02; // A late answer to an abandoned switch arrives first
+    private static final int POSITIONS = 16;
+
+    public static class Options {
+        public final int switches;
+        public final long maxLagNanos;
+        public final double fuzzChance;
+
+        /**
+         * @param switches Number of tab switches to generate.
+         * @param maxLagNanos Upper bound of the simulated server round trip.
+         * @param fuzzChance Chance per event to mutate it; 0 generates well-formed traces only.
+         */
+        public Options(int switches, long maxLagNanos, double fuzzChance) {
+            this.switches = switches;
+            this.maxLagNanos = maxLagNanos;
+            this.fuzzChance = fuzzChance;
+        }
+    }
+
+    public static List<TraceEvent> generate(long seed, Options options) {
+        Random random = new Random(seed);
+        List<TraceEvent> events = new ArrayList<>(options.switches * 6);
+        long[] positions = new long[POSITIONS];
+        for (int i = 0; i < POSITIONS; i++) {
+            positions[i] = random.nextLong();
+        }
+
+        long time = 0;
+        int nextScreenId = 1;
+        int currentScreen = 0;
+        int switches = 0;
+        while (switches < options.switches) {
+            time += 50_000_000L + random.nextInt(200_000_000); // Player think time
+            if (currentScreen == 0) {
+                // Open a container by clicking it, or an equipped backpack/the inventory by key
+                if (random.nextBoolean()) {
+                    events.add(TraceEvent.blockClick(time, positions[random.nextInt(POSITIONS)]));
+                    time += lag(random, options);
+                }
+                currentScreen = nextScreenId++;
+                events.add(TraceEvent.screen(TraceEvent.Kind.SCREEN_INIT, time, currentScreen));
+                events.add(TraceEvent.of(TraceEvent.Kind.SCREEN_INIT_DONE, time));
+                continue;
+            }
+
+            if (random.nextDouble() < CLOSE_CHANCE) {
+                events.add(TraceEvent.screen(TraceEvent.Kind.SCREEN_CLOSE, time, currentScreen));
+                events.add(TraceEvent.of(TraceEvent.Kind.RESET, time));
+                currentScreen = 0;
+                continue;
+            }
+
+            events.add(TraceEvent.of(TraceEvent.Kind.TAB_CLICK_BEGIN, time));
+            if (random.nextDouble() < MISS_CHANCE) {
+                events.add(TraceEvent.tabClickEnd(time, false));
+                continue;
+            }
+            if (random.nextDouble() < UNAVAILABLE_CHANCE) {
+                events.add(TraceEvent.of(TraceEvent.Kind.TAB_UNAVAILABLE, time));
+                events.add(TraceEvent.tabClickEnd(time, true));
+                continue;
+            }
+            if (random.nextDouble() < CONTAINER_TAB_CHANCE) {
+                events.add(TraceEvent.storePos(time, true, positions[random.nextInt(POSITIONS)]));
+            }
+            events.add(TraceEvent.tabClickEnd(time, true));
+            switches++;
+
+            if (random.nextDouble() >= INSTANT_TAB_CHANCE) {
+                time += lag(random, options);
+                if (random.nextDouble() < STALE_SCREEN_CHANCE) {
+                    events.add(TraceEvent.screen(TraceEvent.Kind.SCREEN_CLOSE, time, currentScreen));
+                    currentScreen = nextScreenId++;
+                    events.add(TraceEvent.screen(TraceEvent.Kind.SCREEN_INIT, time, currentScreen));
+                    events.add(TraceEvent.of(TraceEvent.Kind.STALE_SCREEN_INIT, time));
+                    time += lag(random, options);
+                }
+            }
+            events.add(TraceEvent.screen(TraceEvent.Kind.SCREEN_CLOSE, time, currentScreen));
+            currentScreen = nextScreenId++;
+            events.add(TraceEvent.screen(TraceEvent.Kind.SCREEN_INIT, time, currentScreen));
+            events.add(TraceEvent.of(TraceEvent.Kind.SCREEN_INIT_DONE, time));
+        }
+
+        return options.fuzzChance > 0 ? fuzz(random, events, options) : events;
+    }
+
+    private static long lag(Random random, Options options) {
+        return options.maxLagNanos <= 0 ? 0 : (long) (random.nextDouble() * options.maxLagNanos);
+    }
+
+    private static List<TraceEvent> fuzz(Random random, List<TraceEvent> events, Options options) {
+        List<TraceEvent> fuzzed = new ArrayList<>(events.size() + events.size() / 8);
+        long shift = 0; // Lag spikes delay everything after them
+        for (int i = 0; i < events.size(); i++) {
+            TraceEvent event = events.get(i);
+            if (random.nextDouble() >= options.fuzzChance) {
+                fuzzed.add(event.withTime(event.timeNanos + shift));
+                continue;
+            }
+            switch (random.nextInt(5)) {
+                case 0 -> {
+                    // Dropped, e.g. a screen packet that never arrived
+                }
+                case 1 -> {
+                    fuzzed.add(event.withTime(event.timeNanos + shift));
+                    fuzzed.add(event.withTime(event.timeNanos + shift));
+                }
+                case 2 -> {
+                    // Swap with the next event, keeping timestamps in order
+                    if (i + 1 < events.size()) {
+                        TraceEvent next = events.get(++i);
+                        fuzzed.add(next.withTime(event.timeNanos + shift));
+                        fuzzed.add(event.withTime(next.timeNanos + shift));
+                    } else {
+                        fuzzed.add(event.withTime(event.timeNanos + shift));
+                    }
+                }
+                case 3 -> {
+                    shift += options.maxLagNanos * (5 + random.nextInt(20));
+                    fuzzed.add(event.withTime(event.timeNanos + shift));
+                }
+                default -> {
+                    // An impatient second click while the first switch waits for the server
+                    long time = event.timeNanos + shift;
+                    fuzzed.add(TraceEvent.of(TraceEvent.Kind.TAB_CLICK_BEGIN, time));
+                    fuzzed.add(TraceEvent.tabClickEnd(time, true));
+                    fuzzed.add(event.withTime(time));
+                }
+            }
+        }
+        return fuzzed;
+    }
+}
@@ -0,0 +1,65 @@
+package com.yukami.backpacktab.core.trace;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Collects trace events with timestamps relative to the start of the recording.
+ * Screens are only weakly referenced, so recording doesn't keep closed screens alive.
+ * Recording stops silently once the event limit is reached.
+ */
+public class TraceRecorder {
+    private final long startNanos = System.nanoTime();
+    private final int maxEvents;
+    private final List<TraceEvent> events = new ArrayList<>();
+    private final Map<Object, Integer> screenIds = new WeakHashMap<>();
+    private int nextScreenId = 1;
+    private boolean truncated = false;
+
+    public TraceRecorder(int maxEvents) {
+        this.maxEvents = maxEvents;
+    }
+
+    public void record(TraceEvent.Kind kind) {
+        add(TraceEvent.of(kind, now()));
+    }
+
+    public void recordBlockClick(long pos) {
+        add(TraceEvent.blockClick(now(), pos));
+    }
+
+    public void recordStorePos(boolean hasPos, long pos) {
+        add(TraceEvent.storePos(now(), hasPos, pos));
+    }
+
+    public void recordScreen(TraceEvent.Kind kind, Object screen) {
+        int id = screen == null ? 0 : screenIds.computeIfAbsent(screen, key -> nextScreenId++);
+        add(TraceEvent.screen(kind, now(), id));
+    }
+
+    public void recordTabClickEnd(boolean handled) {
+        add(TraceEvent.tabClickEnd(now(), handled));
+    }
+
+    public List<TraceEvent> getEvents() {
+        return events;
+    }
+
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    private long now() {
+        return System.nanoTime() - startNanos;
+    }
+
+    private void add(TraceEvent event) {
+        if (events.size() >= maxEvents) {
+            truncated = true;
+            return;
+        }
+        events.add(event);
+    }
+}
@@ -0,0 +1,153 @@
+package com.yukami.backpacktab.core.trace;
+
+import com.yukami.backpacktab.core.session.TabSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Drives a fresh {@link TabSession} with a trace as fast as possible and checks the session
+ * invariants after every event. Trace time is only used for the stuck switch timeout.
+ */
+public class TraceReplayer {
+    /** Default time a switch may stay in flight, in trace time. */
+    public static final long DEFAULT_SWITCH_TIMEOUT_NANOS = 2_000_000_000L;
+
+    private final long switchTimeoutNanos;
+    private final TabSession<Long, Object> session = new TabSession<>();
+    private final Map<Integer, Object> screens = new HashMap<>(); // Screen ids to stand-in screens compared by identity
+    private ReplayReport report;
+    private long switchingSince; // Trace time the current switch started, or -1
+    private boolean clickOpen;
+    private boolean expectReset;
+
+    public TraceReplayer(long switchTimeoutNanos) {
+        this.switchTimeoutNanos = switchTimeoutNanos;
+    }
+
+    public ReplayReport replay(List<TraceEvent> events) {
+        session.reset();
+        screens.clear();
+        report = new ReplayReport();
+        switchingSince = -1;
+        clickOpen = false;
+        expectReset = false;
+
+        long startNanos = System.nanoTime();
+        for (int i = 0; i < events.size(); i++) {
+            apply(i, events.get(i));
+        }
+        report.elapsedNanos = System.nanoTime() - startNanos;
+        report.eventCount = events.size();
+
+        if (expectReset) {
+            report.addViolation(ReplayReport.ViolationKind.MISSING_RESET, -1, null, "trace ended before the session was reset");
+        }
+        if (clickOpen) {
+            report.addViolation(ReplayReport.ViolationKind.UNBALANCED_CLICK, -1, null, "trace ended inside a tab click");
+        } else if (session.isTabSwitching()) {
+            report.addViolation(ReplayReport.ViolationKind.STUCK_SWITCH, -1, null, "trace ended with a switch in flight");
+        }
+        report.finalState = describeState();
+        return report;
+    }
+
+    private void apply(int index, TraceEvent event) {
+        if (expectReset && event.kind != TraceEvent.Kind.RESET) {
+            report.addViolation(ReplayReport.ViolationKind.MISSING_RESET, index, event, "expected a reset after the player closed the screen");
+            expectReset = false;
+        }
+        if (switchingSince >= 0 && event.timeNanos - switchingSince > switchTimeoutNanos) {
+            report.addViolation(ReplayReport.ViolationKind.STUCK_SWITCH, index, event,
+                    "switch in flight for " + (event.timeNanos - switchingSince) / 1_000_000 + "ms");
+            switchingSince = -1; // Report each switch once
+        }
+
+        switch (event.kind) {
+            case BLOCK_CLICK -> session.onContainerBlockClicked(event.pos);
+            case STORE_POS -> session.setStoredBlockPos(event.hasPos ? event.pos : null);
+            case SCREEN_INIT -> {
+                Object screen = screens.computeIfAbsent(event.screenId, id -> new Object());
+                if (!session.isTabSwitching() && session.getCurrentScreen() != null && session.getCurrentScreen() != screen) {
+                    report.addViolation(ReplayReport.ViolationKind.SCREEN_REPLACED, index, event, "previous screen never closed");
+                }
+                session.onScreenInit(screen);
+            }
+            case SCREEN_INIT_DONE -> {
+                session.onScreenInitDone();
+                if (session.isTabSwitching() || session.isFromBlockClick()) {
+                    report.addViolation(ReplayReport.ViolationKind.FLAGS_NOT_CLEARED, index, event, describeState());
+                }
+            }
+            case STALE_SCREEN_INIT -> {
+                session.onStaleScreenInit();
+                if (!session.isTabSwitching()) {
+                    report.addViolation(ReplayReport.ViolationKind.STALE_WITHOUT_SWITCH, index, event, describeState());
+                } else if (session.isFromBlockClick()) {
+                    report.addViolation(ReplayReport.ViolationKind.FLAGS_NOT_CLEARED, index, event, describeState());
+                }
+            }
+            case TAB_CLICK_BEGIN -> {
+                if (clickOpen) {
+                    report.addViolation(ReplayReport.ViolationKind.UNBALANCED_CLICK, index, event, "previous click never ended");
+                }
+                if (session.isTabSwitching()) {
+                    report.addViolation(ReplayReport.ViolationKind.DOUBLE_SWITCH, index, event, "a switch is already in flight");
+                }
+                if (session.getCurrentScreen() == null) {
+                    report.addViolation(ReplayReport.ViolationKind.CLICK_WITHOUT_SCREEN, index, event, "no managed screen");
+                }
+                clickOpen = true;
+                session.beginTabClick();
+            }
+            case TAB_CLICK_END -> {
+                if (!clickOpen) {
+                    report.addViolation(ReplayReport.ViolationKind.UNBALANCED_CLICK, index, event, "click never started");
+                }
+                clickOpen = false;
+                session.endTabClick(event.handled);
+                if (event.handled && session.isTabSwitching()) {
+                    report.switchCount++;
+                }
+            }
+            case TAB_UNAVAILABLE -> session.onTabUnavailable();
+            case SCREEN_CLOSE -> {
+                Object screen = screens.get(event.screenId);
+                if (screen != null && session.onScreenClose(screen)) {
+                    expectReset = true; // The manager resets right after the player closes the screen
+                }
+            }
+            case RESET -> {
+                expectReset = false;
+                session.reset();
+                if (session.getCurrentScreen() != null || session.getStoredBlockPos() != null
+                        || session.isTabSwitching() || session.isFromBlockClick()) {
+                    report.addViolation(ReplayReport.ViolationKind.DIRTY_RESET, index, event, describeState());
+                }
+            }
+        }
+
+        // Switch timing only counts once the click has ended, so a click in progress isn't a stuck switch
+        if (!session.isTabSwitching() || clickOpen) {
+            switchingSince = -1;
+        } else if (switchingSince < 0) {
+            switchingSince = event.timeNanos;
+        }
+    }
+
+    private String describeState() {
+        Object current = session.getCurrentScreen();
+        Integer currentId = null;
+        if (current != null) {
+            for (Map.Entry<Integer, Object> entry : screens.entrySet()) {
+                if (entry.getValue() == current) {
+                    currentId = entry.getKey();
+                    break;
+                }
+            }
+        }
+        return "screen=" + currentId + " storedPos=" + session.getStoredBlockPos()
+                + " tabSwitching=" + session.isTabSwitching() + " fromBlockClick=" + session.isFromBlockClick();
+    }
+}
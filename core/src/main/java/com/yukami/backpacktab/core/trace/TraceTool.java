@@ -0,0 +1,94 @@
+package com.yukami.backpacktab.core.trace;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Command line entry point for headless trace runs:
+ * <pre>
+ * replay &lt;file&gt; [timeoutMs]                     replay a recorded trace
+ * generate &lt;file&gt; &lt;switches&gt; [seed] [fuzz]      write a generated trace
+ * stress &lt;switches&gt; [seed] [fuzz] [runs]        generate and replay in memory
+ * </pre>
+ * Exits with 1 if a recorded or well-formed (fuzz 0) trace has invariant violations.
+ */
+public class TraceTool {
+    private static final long DEFAULT_LAG_NANOS = 150_000_000L;
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            usage();
+            return;
+        }
+        switch (args[0]) {
+            case "replay" -> {
+                if (args.length < 2) {
+                    usage();
+                    return;
+                }
+                List<TraceEvent> events;
+                try (InputStream in = new BufferedInputStream(Files.newInputStream(Path.of(args[1])))) {
+                    events = TraceFormat.read(in);
+                }
+                long timeout = args.length > 2 ? Long.parseLong(args[2]) * 1_000_000L : TraceReplayer.DEFAULT_SWITCH_TIMEOUT_NANOS;
+                ReplayReport report = new TraceReplayer(timeout).replay(events);
+                report.describe().forEach(System.out::println);
+                exitOnViolations(report);
+            }
+            case "generate" -> {
+                if (args.length < 3) {
+                    usage();
+                    return;
+                }
+                long seed = args.length > 3 ? Long.parseLong(args[3]) : System.nanoTime();
+                double fuzz = args.length > 4 ? Double.parseDouble(args[4]) : 0.0;
+                List<TraceEvent> events = TraceGenerator.generate(seed, new TraceGenerator.Options(Integer.parseInt(args[2]), DEFAULT_LAG_NANOS, fuzz));
+                try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(Path.of(args[1])))) {
+                    TraceFormat.write(out, events);
+                }
+                System.out.println("Wrote " + events.size() + " events (seed " + seed + ") to " + args[1]);
+            }
+            case "stress" -> {
+                int switches = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+                long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+                double fuzz = args.length > 3 ? Double.parseDouble(args[3]) : 0.0;
+                int runs = args.length > 4 ? Integer.parseInt(args[4]) : 5;
+                List<TraceEvent> events = TraceGenerator.generate(seed, new TraceGenerator.Options(switches, DEFAULT_LAG_NANOS, fuzz));
+                System.out.println(String.format(Locale.ROOT, "seed %d, fuzz %.3f, %d events", seed, fuzz, events.size()));
+                // Earlier runs warm up the JIT; the last report is printed in full
+                ReplayReport report = null;
+                for (int run = 0; run < runs; run++) {
+                    report = new TraceReplayer(TraceReplayer.DEFAULT_SWITCH_TIMEOUT_NANOS).replay(events);
+                    System.out.println(String.format(Locale.ROOT, "run %d: %.0f switches/s", run + 1, report.getSwitchesPerSecond()));
+                }
+                if (report != null) {
+                    report.describe().forEach(System.out::println);
+                    if (fuzz == 0.0) {
+                        exitOnViolations(report);
+                    }
+                }
+            }
+            default -> usage();
+        }
+    }
+
+    private static void exitOnViolations(ReplayReport report) {
+        if (report.getViolationCount() > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static void usage() {
+        System.out.println("Usage:");
+        System.out.println("  replay <file> [timeoutMs]");
+        System.out.println("  generate <file> <switches> [seed] [fuzz]");
+        System.out.println("  stress <switches> [seed] [fuzz] [runs]");
+    }
+}
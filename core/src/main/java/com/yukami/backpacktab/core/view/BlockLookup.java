@@ -0,0 +1,26 @@
+package com.yukami.backpacktab.core.view;
+
+import java.util.function.Consumer;
+
+/**
+ * Read-only view of the block registry and block tags, as far as additional block matching needs it.
+ * Ids are passed as written in the config; implementations return nothing for ids they can't parse.
+ * @param <B> Block type.
+ */
+public interface BlockLookup<B> {
+
+    /**
+     * Returns the block registered under the id, or null.
+     */
+    B getBlock(String id);
+
+    /**
+     * Passes every block in the block tag to the consumer.
+     */
+    void forEachInTag(String tagId, Consumer<B> consumer);
+
+    /**
+     * Passes every block registered by the namespace to the consumer.
+     */
+    void forEachInNamespace(String namespace, Consumer<B> consumer);
+}
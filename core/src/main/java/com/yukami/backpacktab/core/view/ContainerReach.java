@@ -0,0 +1,27 @@
+package com.yukami.backpacktab.core.view;
+
+/**
+ * Reach rules for container tabs.
+ */
+public class ContainerReach {
+    // Vanilla uses 8 blocks for most containers, squared is 64
+    public static final double MAX_REACH_SQ = 64.0;
+
+    /**
+     * Validates if a container block is still accessible by the player.
+     * @return True if the block exists, is within reach and still gets a container tab.
+     */
+    public static <P> boolean isStillValid(WorldView<P> world, P pos) {
+        if (pos == null || !world.hasPlayer()) {
+            return false;
+        }
+        if (world.isAir(pos)) {
+            return false;
+        }
+        if (world.distanceSqToPlayer(pos) > MAX_REACH_SQ) {
+            return false;
+        }
+        // Backpack blocks and additional configured blocks are always valid if they exist
+        return world.isContainer(pos);
+    }
+}
@@ -0,0 +1,46 @@
+package com.yukami.backpacktab.core.view;
+
+/**
+ * Read-only view of the open menu and the player inventory, as far as carried item stashing needs it.
+ * Screen slots are indices into the menu's slot list; inventory slots are player inventory indices.
+ */
+public interface InventoryView {
+
+    /**
+     * Returns an object identifying the open menu; slot lookups are cached per identity.
+     */
+    Object getMenuIdentity();
+
+    int getContainerId();
+
+    /**
+     * Returns true if the player holds a stack on the cursor.
+     */
+    boolean isCarrying();
+
+    /**
+     * Returns the number of player inventory slots.
+     */
+    int getInventorySize();
+
+    /**
+     * Returns an empty main inventory slot, or -1.
+     */
+    int findFreeInventorySlot();
+
+    /**
+     * Returns the number of slots in the open menu.
+     */
+    int getSlotCount();
+
+    /**
+     * Returns the player inventory index behind a screen slot, or -1 if the slot belongs to another container.
+     */
+    int getInventorySlotIndex(int screenSlot);
+
+    /**
+     * Returns true if the screen slot is an empty slot of a plain storage container (a chest or a backpack,
+     * not a crafting grid or machine input) that would accept the carried stack.
+     */
+    boolean acceptsCarried(int screenSlot);
+}
@@ -0,0 +1,38 @@
+package com.yukami.backpacktab.core.view;
+
+/**
+ * Outgoing packets the tab logic sends.
+ * @param <P> Block position type.
+ */
+public interface PacketSink<P> {
+
+    /**
+     * Left PICKUP click on a screen slot.
+     */
+    void clickSlot(int containerId, int screenSlot);
+
+    /**
+     * Tells the server the menu is being closed.
+     */
+    void closeContainer(int containerId);
+
+    /**
+     * Right-clicks the block to open its menu.
+     */
+    void useBlock(P pos);
+
+    /**
+     * Asks Sophisticated Backpacks to open an equipped backpack.
+     */
+    void openBackpack(String inventoryName, String identifier, int slot);
+
+    /**
+     * Asks this mod's server half to swap the open menu for a container block in one step.
+     */
+    void switchToBlock(int containerId, P pos);
+
+    /**
+     * Asks this mod's server half to swap the open menu for an equipped backpack in one step.
+     */
+    void switchToBackpack(int containerId, String inventoryName, String identifier, int slot);
+}
@@ -0,0 +1,17 @@
+package com.yukami.backpacktab.core.view;
+
+/**
+ * Opens and closes client-side screens.
+ */
+public interface ScreenFactory {
+
+    /**
+     * Shows the survival inventory screen.
+     */
+    void openPlayerInventory();
+
+    /**
+     * Closes the current screen.
+     */
+    void closeScreen();
+}
@@ -0,0 +1,25 @@
+package com.yukami.backpacktab.core.view;
+
+/**
+ * Read-only view of the world around the local player.
+ * @param <P> Block position type.
+ */
+public interface WorldView<P> {
+
+    /**
+     * Returns true if there is a local player in a level.
+     */
+    boolean hasPlayer();
+
+    boolean isAir(P pos);
+
+    /**
+     * Squared distance from the player's position to the center of the block.
+     */
+    double distanceSqToPlayer(P pos);
+
+    /**
+     * Returns true if the block at the position gets a container tab.
+     */
+    boolean isContainer(P pos);
+}
@@ -0,0 +1,42 @@
+package com.yukami.backpacktab.core.trace;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Stresses the tab session with generated switch sequences. Well-formed traces (fuzz 0) must replay
+ * without invariant violations, directly and after a round trip through the trace file format.
+ */
+class TraceReplayTest {
+    private static final long LAG_NANOS = 150_000_000L;
+    private static final long[] SEEDS = {1L, 42L, 1234567L};
+
+    @Test
+    void generatedSwitchesReplayWithoutViolations() {
+        for (long seed : SEEDS) {
+            List<TraceEvent> events = TraceGenerator.generate(seed, new TraceGenerator.Options(20_000, LAG_NANOS, 0.0));
+            ReplayReport report = new TraceReplayer(TraceReplayer.DEFAULT_SWITCH_TIMEOUT_NANOS).replay(events);
+            assertEquals(0, report.getViolationCount(), () -> "seed " + seed + ": " + String.join("\n", report.describe()));
+        }
+    }
+
+    @Test
+    void traceFileRoundTripKeepsReplayResult() throws IOException {
+        List<TraceEvent> events = TraceGenerator.generate(7L, new TraceGenerator.Options(2_000, LAG_NANOS, 0.0));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        TraceFormat.write(out, events);
+        List<TraceEvent> read = TraceFormat.read(new ByteArrayInputStream(out.toByteArray()));
+
+        ReplayReport direct = new TraceReplayer(TraceReplayer.DEFAULT_SWITCH_TIMEOUT_NANOS).replay(events);
+        ReplayReport roundTrip = new TraceReplayer(TraceReplayer.DEFAULT_SWITCH_TIMEOUT_NANOS).replay(read);
+        assertEquals(events.size(), read.size());
+        assertEquals(direct.getSwitchCount(), roundTrip.getSwitchCount());
+        assertEquals(0, roundTrip.getViolationCount(), () -> String.join("\n", roundTrip.describe()));
+    }
+}
@@ -0,0 +1,110 @@
+package com.yukami.backpacktab.benchmark;
+
+import com.yukami.backpacktab.core.tabs.AdditionalBlockRules;
+import com.yukami.backpacktab.core.view.BlockLookup;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Additional block matching as AdditionalBlockMatcher does it: compiling the configured list through the
+ * core {@link AdditionalBlockRules} (once per config revision and tag reload) and one lookup in the
+ * compiled set. Blocks can't be created without bootstrapping the registries, so a fake registry of plain
+ * objects stands in for them. The list mixes single blocks with one tag and one {@code modid:*} entry.
+ */
+@State(Scope.Thread)
+public class AdditionalBlockMatchBenchmark {
+    private static final int BLOCKS_PER_MOD = 200;
+    private static final int TAG_SIZE = 50;
+
+    @Param({"10", "100", "1000", "10000"})
+    public int listSize;
+
+    private List<String> entries;
+    private FakeBlockLookup lookup;
+    private Set<Object> compiledBlocks;
+    private Object missingBlock;
+    private Object lastBlock;
+
+    @Setup
+    public void setup() {
+        lookup = new FakeBlockLookup();
+        entries = new ArrayList<>(listSize);
+        entries.add("#benchmod:storage");
+        entries.add("othermod:*");
+        for (int i = 0; entries.size() < listSize; i++) {
+            String id = "benchmod:block_" + i;
+            lastBlock = lookup.register(id);
+            entries.add(id);
+        }
+        missingBlock = lookup.register("minecraft:stone");
+        compiledBlocks = compile();
+    }
+
+    @Benchmark
+    public Set<Object> compile() {
+        return AdditionalBlockRules.compile(entries, lookup, (entry, e) -> { });
+    }
+
+    @Benchmark
+    public boolean compiledSetMiss() {
+        return compiledBlocks.contains(missingBlock);
+    }
+
+    @Benchmark
+    public boolean compiledSetHit() {
+        return compiledBlocks.contains(lastBlock);
+    }
+
+    private static class FakeBlockLookup implements BlockLookup<Object> {
+        private final Map<String, Object> blocks = new HashMap<>();
+        private final Map<String, List<Object>> tags = new HashMap<>();
+
+        FakeBlockLookup() {
+            List<Object> tag = new ArrayList<>(TAG_SIZE);
+            for (int i = 0; i < TAG_SIZE; i++) {
+                tag.add(register("tagmod:crate_" + i));
+            }
+            tags.put("benchmod:storage", tag);
+            for (int i = 0; i < BLOCKS_PER_MOD; i++) {
+                register("othermod:block_" + i);
+            }
+        }
+
+        Object register(String id) {
+            Object block = new Object();
+            blocks.put(id, block);
+            return block;
+        }
+
+        @Override
+        public Object getBlock(String id) {
+            return blocks.get(id);
+        }
+
+        @Override
+        public void forEachInTag(String tagId, Consumer<Object> consumer) {
+            tags.getOrDefault(tagId, List.of()).forEach(consumer);
+        }
+
+        @Override
+        public void forEachInNamespace(String namespace, Consumer<Object> consumer) {
+            // The registry has no namespace index, so the real lookup walks every entry
+            for (Map.Entry<String, Object> entry : blocks.entrySet()) {
+                if (entry.getKey().startsWith(namespace) && entry.getKey().charAt(namespace.length()) == ':') {
+                    consumer.accept(entry.getValue());
+                }
+            }
+        }
+    }
+}
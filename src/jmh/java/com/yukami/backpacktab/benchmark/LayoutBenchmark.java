@@ -0,0 +1,64 @@
+package com.yukami.backpacktab.benchmark;
+
+import com.yukami.backpacktab.core.layout.TabPosition;
+import com.yukami.backpacktab.core.layout.TabPositionCalculator;
+import com.yukami.backpacktab.core.layout.TabSprites;
+import com.yukami.backpacktab.core.layout.TabStripGeometry;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Per-frame layout math: the tab strip origin, every tab's x and the sprite lookup for every tab,
+ * plus building the strip geometry as done once per screen, unbounded and limited to a 427px wide
+ * (GUI-scaled 854px) window where only the visible tabs are laid out.
+ */
+@State(Scope.Thread)
+public class LayoutBenchmark {
+    private static final int TAB_WIDTH = TabStripGeometry.TAB_WIDTH;
+    private static final int TAB_HEIGHT = TabStripGeometry.TAB_HEIGHT;
+    private static final int TAB_SPACING = TabStripGeometry.TAB_SPACING;
+
+    @Param({"TOP_LEFT", "TOP_RIGHT", "BOTTOM_LEFT", "BOTTOM_RIGHT"})
+    public TabPosition position;
+
+    @Param({"4", "12", "48"})
+    public int tabCount;
+
+    private boolean[] active;
+
+    @Setup
+    public void setup() {
+        active = new boolean[tabCount];
+        active[0] = true;
+    }
+
+    @Benchmark
+    public void calculateLayout(Blackhole blackhole) {
+        TabPositionCalculator.TabLayout layout = TabPositionCalculator.calculateLayout(position, 120, 40, 176, 166, TAB_WIDTH, TAB_HEIGHT);
+        for (int i = 0; i < tabCount; i++) {
+            blackhole.consume(layout.getTabX(i, TAB_SPACING));
+        }
+    }
+
+    @Benchmark
+    public void spriteCoords(Blackhole blackhole) {
+        for (int i = 0; i < tabCount; i++) {
+            blackhole.consume(TabSprites.getSpriteCoords(position, i == 0, i == 0));
+        }
+    }
+
+    @Benchmark
+    public TabStripGeometry buildGeometry() {
+        return TabStripGeometry.build(position, 120, 40, 176, 166, active);
+    }
+
+    @Benchmark
+    public TabStripGeometry buildWindowedGeometry() {
+        return TabStripGeometry.build(position, 120, 40, 176, 166, active, 427, 0);
+    }
+}
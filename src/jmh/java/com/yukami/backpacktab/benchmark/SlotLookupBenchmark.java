@@ -0,0 +1,115 @@
+package com.yukami.backpacktab.benchmark;
+
+import com.yukami.backpacktab.core.stash.CarriedItemStash;
+import com.yukami.backpacktab.core.view.InventoryView;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Inventory slot to screen slot lookup as done by CarriedItemUtil. Menus and slots need a player and
+ * registries, so the menu is modelled as a list of (container, slot index) pairs laid out like a
+ * container menu: container slots first, then the 36 player inventory slots.
+ * Both benchmarks go through the core {@link CarriedItemStash}: {@code coreStashLookup} with its cached
+ * per-menu array, {@code coreStashLookupNewMenu} including building that array.
+ */
+@State(Scope.Thread)
+public class SlotLookupBenchmark {
+    private static final int INVENTORY_SIZE = 41;
+
+    private static class FakeSlot {
+        final Object container;
+        final int slotIndex;
+
+        FakeSlot(Object container, int slotIndex) {
+            this.container = container;
+            this.slotIndex = slotIndex;
+        }
+    }
+
+    @Param({"50", "150", "300"})
+    public int menuSize;
+
+    private final Object inventory = new Object();
+    private List<FakeSlot> slots;
+    private int target;
+    private final CarriedItemStash stash = new CarriedItemStash();
+    private InventoryView view;
+
+    @Setup
+    public void setup() {
+        Object container = new Object();
+        int containerSlots = Math.max(0, menuSize - 36);
+        slots = new ArrayList<>(menuSize);
+        for (int i = 0; i < containerSlots; i++) {
+            slots.add(new FakeSlot(container, i));
+        }
+        for (int i = 0; i < 36; i++) {
+            slots.add(new FakeSlot(inventory, i < 27 ? i + 9 : i - 27)); // Main inventory rows, then the hotbar
+        }
+        target = 8; // Last hotbar slot, at the very end of the menu
+        view = new FakeInventoryView();
+    }
+
+    @Benchmark
+    public int coreStashLookup() {
+        return stash.findScreenSlotIndex(view, target);
+    }
+
+    @Benchmark
+    public int coreStashLookupNewMenu() {
+        stash.reset(); // Forces the per-menu array to be rebuilt, as on the first lookup in a new menu
+        return stash.findScreenSlotIndex(view, target);
+    }
+
+    private class FakeInventoryView implements InventoryView {
+        private final Object menu = new Object();
+
+        @Override
+        public Object getMenuIdentity() {
+            return menu;
+        }
+
+        @Override
+        public int getContainerId() {
+            return 1;
+        }
+
+        @Override
+        public boolean isCarrying() {
+            return true;
+        }
+
+        @Override
+        public int getInventorySize() {
+            return INVENTORY_SIZE;
+        }
+
+        @Override
+        public int findFreeInventorySlot() {
+            return target;
+        }
+
+        @Override
+        public int getSlotCount() {
+            return slots.size();
+        }
+
+        @Override
+        public int getInventorySlotIndex(int screenSlot) {
+            FakeSlot slot = slots.get(screenSlot);
+            return slot.container == inventory ? slot.slotIndex : -1;
+        }
+
+        @Override
+        public boolean acceptsCarried(int screenSlot) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.yukami.backpacktab.benchmark;
+
+import com.yukami.backpacktab.core.tabs.CoreTab;
+import com.yukami.backpacktab.core.tabs.TabListBuilder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full tab list rebuild through the core {@link TabListBuilder}, as done on every screen init and live
+ * refresh: on an initial screen open and on a tab switch, where active states are carried over by key
+ * from the previous strip. Container tabs stand for history and discovered containers.
+ */
+@State(Scope.Thread)
+public class TabListBuildBenchmark {
+
+    private static class FakeTab implements CoreTab {
+        private final Object key;
+        private boolean active;
+
+        FakeTab(Object key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object getTabKey() {
+            return key;
+        }
+
+        @Override
+        public boolean isActive() {
+            return active;
+        }
+
+        @Override
+        public void setActive(boolean active) {
+            this.active = active;
+        }
+    }
+
+    @Param({"0", "8", "32"})
+    public int containerCount;
+
+    @Param({"1", "4"})
+    public int backpackCount;
+
+    private FakeTab baseTab;
+    private List<FakeTab> containerTabs;
+    private List<FakeTab> equippedTabs;
+    private List<FakeTab> previousTabs;
+
+    @Setup
+    public void setup() {
+        baseTab = new FakeTab(FakeTab.class);
+        containerTabs = new ArrayList<>(containerCount);
+        for (int i = 0; i < containerCount; i++) {
+            containerTabs.add(new FakeTab((long) i)); // Packed positions, like ContainerTab keys
+        }
+        equippedTabs = new ArrayList<>(backpackCount);
+        for (int i = 0; i < backpackCount; i++) {
+            equippedTabs.add(new FakeTab("curios/back/" + i));
+        }
+        previousTabs = TabListBuilder.build(baseTab, containerTabs, equippedTabs, List.of(), false);
+    }
+
+    @Benchmark
+    public List<FakeTab> buildInitial() {
+        return TabListBuilder.build(baseTab, containerTabs, equippedTabs, List.of(), false);
+    }
+
+    @Benchmark
+    public List<FakeTab> buildPreservingActive() {
+        return TabListBuilder.build(baseTab, containerTabs, equippedTabs, previousTabs, true);
+    }
+}
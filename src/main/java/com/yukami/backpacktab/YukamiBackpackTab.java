@@ -3,6 +3,8 @@ package com.yukami.backpacktab;
 import com.mojang.logging.LogUtils;
 import com.yukami.backpacktab.client.config.TabConfig;
 import com.yukami.backpacktab.client.gui.InventoryTabManager;
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+import com.yukami.backpacktab.network.TabNetwork;
 
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
@@ -23,6 +25,11 @@ public class YukamiBackpackTab {
         
         // Register config
         TabConfig.register();
+        modEventBus.addListener(TabConfig::onConfigLoading);
+        modEventBus.addListener(TabConfig::onConfigReloading);
+        
+        // Register the optional client/server channel
+        TabNetwork.register();
         
         // Register client setup
         modEventBus.addListener(this::clientSetup);
@@ -37,6 +44,7 @@ public class YukamiBackpackTab {
         // Client-side initialization
         DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> {
             MinecraftForge.EVENT_BUS.register(InventoryTabManager.class);
+            TabMetrics.init();
             LOGGER.info("Client setup for Yukami Backpack Tab - registered inventory tab manager");
         });
     }
@@ -0,0 +1,82 @@
+package com.yukami.backpacktab.client.adapter;
+
+import com.yukami.backpacktab.core.view.PacketSink;
+import com.yukami.backpacktab.network.SwitchContainerMessage;
+import com.yukami.backpacktab.network.TabNetwork;
+
+import net.minecraft.client.multiplayer.MultiPlayerGameMode;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.protocol.game.ServerboundContainerClosePacket;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.inventory.ClickType;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import net.p3pp3rf1y.sophisticatedbackpacks.network.BackpackOpenMessage;
+import net.p3pp3rf1y.sophisticatedbackpacks.network.SBPPacketHandler;
+
+/**
+ * Core packet sink that sends through the local player's connection and game mode.
+ */
+public class ClientPacketSink implements PacketSink<BlockPos> {
+    private final LocalPlayer player;
+    private final MultiPlayerGameMode gameMode;
+    private final int switchSequence; // Sent with switch packets, see SwitchTracker
+
+    public ClientPacketSink(LocalPlayer player, MultiPlayerGameMode gameMode) {
+        this(player, gameMode, 0);
+    }
+
+    public ClientPacketSink(LocalPlayer player, MultiPlayerGameMode gameMode, int switchSequence) {
+        this.player = player;
+        this.gameMode = gameMode;
+        this.switchSequence = switchSequence;
+    }
+
+    /**
+     * Returns true if the server runs this mod's server half, so the switch packets can be used.
+     */
+    public boolean isServerSupported() {
+        return isServerSupported(player);
+    }
+
+    public static boolean isServerSupported(LocalPlayer player) {
+        return player.connection != null && TabNetwork.isServerSupported(player.connection.getConnection());
+    }
+
+    @Override
+    public void clickSlot(int containerId, int screenSlot) {
+        gameMode.handleInventoryMouseClick(containerId, screenSlot, 0, ClickType.PICKUP, player); // Left click
+    }
+
+    @Override
+    public void closeContainer(int containerId) {
+        if (player.connection != null) {
+            player.connection.send(new ServerboundContainerClosePacket(containerId));
+        }
+    }
+
+    @Override
+    public void useBlock(BlockPos pos) {
+        // We create a "hit result" to specify which block we are "clicking"
+        BlockHitResult hitResult = new BlockHitResult(Vec3.atCenterOf(pos), Direction.UP, pos, false);
+        // The gameMode's useItemOn method sends the interaction packet to the server
+        gameMode.useItemOn(player, InteractionHand.MAIN_HAND, hitResult);
+    }
+
+    @Override
+    public void openBackpack(String inventoryName, String identifier, int slot) {
+        SBPPacketHandler.INSTANCE.sendToServer(new BackpackOpenMessage(slot, identifier, inventoryName));
+    }
+
+    @Override
+    public void switchToBlock(int containerId, BlockPos pos) {
+        TabNetwork.CHANNEL.sendToServer(SwitchContainerMessage.toBlock(switchSequence, containerId, pos));
+    }
+
+    @Override
+    public void switchToBackpack(int containerId, String inventoryName, String identifier, int slot) {
+        TabNetwork.CHANNEL.sendToServer(SwitchContainerMessage.toBackpack(switchSequence, containerId, inventoryName, identifier, slot));
+    }
+}
@@ -0,0 +1,28 @@
+package com.yukami.backpacktab.client.adapter;
+
+import com.yukami.backpacktab.client.util.InventoryScreenCache;
+import com.yukami.backpacktab.core.view.ScreenFactory;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+
+/**
+ * Core screen factory backed by Minecraft.setScreen.
+ */
+public class ClientScreenFactory implements ScreenFactory {
+    private final LocalPlayer player;
+
+    public ClientScreenFactory(LocalPlayer player) {
+        this.player = player;
+    }
+
+    @Override
+    public void openPlayerInventory() {
+        Minecraft.getInstance().setScreen(InventoryScreenCache.take(player)); // One cached screen, reused across switches
+    }
+
+    @Override
+    public void closeScreen() {
+        Minecraft.getInstance().setScreen(null);
+    }
+}
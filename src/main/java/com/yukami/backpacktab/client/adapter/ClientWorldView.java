@@ -0,0 +1,40 @@
+package com.yukami.backpacktab.client.adapter;
+
+import com.yukami.backpacktab.client.util.BlockClassificationCache;
+import com.yukami.backpacktab.core.view.WorldView;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * Core world view backed by the client level and the local player. Stateless; reads the current
+ * player on every call.
+ */
+public class ClientWorldView implements WorldView<BlockPos> {
+    public static final ClientWorldView INSTANCE = new ClientWorldView();
+
+    private ClientWorldView() {
+    }
+
+    @Override
+    public boolean hasPlayer() {
+        Player player = Minecraft.getInstance().player;
+        return player != null && player.level() != null;
+    }
+
+    @Override
+    public boolean isAir(BlockPos pos) {
+        return Minecraft.getInstance().player.level().getBlockState(pos).isAir();
+    }
+
+    @Override
+    public double distanceSqToPlayer(BlockPos pos) {
+        return Minecraft.getInstance().player.distanceToSqr(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+    }
+
+    @Override
+    public boolean isContainer(BlockPos pos) {
+        return BlockClassificationCache.classify(Minecraft.getInstance().player.level(), pos).isContainer();
+    }
+}
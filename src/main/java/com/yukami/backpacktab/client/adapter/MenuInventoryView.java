@@ -0,0 +1,75 @@
+package com.yukami.backpacktab.client.adapter;
+
+import com.yukami.backpacktab.core.view.InventoryView;
+
+import net.minecraft.world.entity.player.Inventory;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.ChestMenu;
+import net.minecraft.world.inventory.DispenserMenu;
+import net.minecraft.world.inventory.HopperMenu;
+import net.minecraft.world.inventory.ShulkerBoxMenu;
+import net.minecraft.world.inventory.Slot;
+import net.p3pp3rf1y.sophisticatedbackpacks.common.gui.BackpackContainer;
+
+/**
+ * Core inventory view over an open menu and the local player's inventory.
+ */
+public class MenuInventoryView implements InventoryView {
+    private final Inventory inventory;
+    private final AbstractContainerMenu menu;
+
+    public MenuInventoryView(Inventory inventory, AbstractContainerMenu menu) {
+        this.inventory = inventory;
+        this.menu = menu;
+    }
+
+    @Override
+    public Object getMenuIdentity() {
+        return menu;
+    }
+
+    @Override
+    public int getContainerId() {
+        return menu.containerId;
+    }
+
+    @Override
+    public boolean isCarrying() {
+        return !menu.getCarried().isEmpty();
+    }
+
+    @Override
+    public int getInventorySize() {
+        return inventory.getContainerSize();
+    }
+
+    @Override
+    public int findFreeInventorySlot() {
+        return inventory.getFreeSlot();
+    }
+
+    @Override
+    public int getSlotCount() {
+        return menu.slots.size();
+    }
+
+    @Override
+    public int getInventorySlotIndex(int screenSlot) {
+        Slot slot = menu.slots.get(screenSlot);
+        // Check if the slot belongs to the player's inventory
+        return slot.container == inventory ? slot.getSlotIndex() : -1;
+    }
+
+    @Override
+    public boolean acceptsCarried(int screenSlot) {
+        Slot slot = menu.slots.get(screenSlot);
+        if (slot.hasItem() || !slot.mayPlace(menu.getCarried())) {
+            return false;
+        }
+        // Crafting grids and machine inputs hand their contents back on close, which drops them with a full inventory
+        if (menu instanceof BackpackContainer backpack) {
+            return screenSlot < backpack.getNumberOfStorageInventorySlots(); // Not the upgrade slots
+        }
+        return menu instanceof ChestMenu || menu instanceof ShulkerBoxMenu || menu instanceof DispenserMenu || menu instanceof HopperMenu;
+    }
+}
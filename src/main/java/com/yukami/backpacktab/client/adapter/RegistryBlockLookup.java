@@ -0,0 +1,46 @@
+package com.yukami.backpacktab.client.adapter;
+
+import com.yukami.backpacktab.core.view.BlockLookup;
+
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.registries.ForgeRegistries;
+import net.minecraftforge.registries.tags.ITagManager;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Core block lookup backed by the Forge block registry and its tags.
+ */
+public class RegistryBlockLookup implements BlockLookup<Block> {
+    public static final RegistryBlockLookup INSTANCE = new RegistryBlockLookup();
+
+    @Override
+    public Block getBlock(String id) {
+        ResourceLocation blockId = ResourceLocation.tryParse(id);
+        return blockId != null && ForgeRegistries.BLOCKS.containsKey(blockId) ? ForgeRegistries.BLOCKS.getValue(blockId) : null;
+    }
+
+    @Override
+    public void forEachInTag(String tagId, Consumer<Block> consumer) {
+        ResourceLocation id = ResourceLocation.tryParse(tagId);
+        ITagManager<Block> tags = ForgeRegistries.BLOCKS.tags();
+        if (id == null || tags == null) {
+            return;
+        }
+        for (Block block : tags.getTag(tags.createTagKey(id))) {
+            consumer.accept(block);
+        }
+    }
+
+    @Override
+    public void forEachInNamespace(String namespace, Consumer<Block> consumer) {
+        for (Map.Entry<ResourceKey<Block>, Block> registered : ForgeRegistries.BLOCKS.getEntries()) {
+            if (registered.getKey().location().getNamespace().equals(namespace)) {
+                consumer.accept(registered.getValue());
+            }
+        }
+    }
+}
@@ -1,23 +1,23 @@
 package com.yukami.backpacktab.client.config;
 
+import com.yukami.backpacktab.core.layout.TabPosition;
+
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.ModLoadingContext;
 import net.minecraftforge.fml.config.ModConfig;
+import net.minecraftforge.fml.event.config.ModConfigEvent;
 import java.util.List;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class TabConfig {
     
-    public enum TabPosition {
-        TOP_LEFT,
-        TOP_RIGHT,
-        BOTTOM_LEFT,
-        BOTTOM_RIGHT
-    }
-    
     public static final ForgeConfigSpec CLIENT_SPEC;
     public static final Client CLIENT;
     
+    // Bumped whenever the client config is (re)loaded, so caches can cheaply detect stale data
+    private static final AtomicInteger revision = new AtomicInteger();
+    
     static {
         ForgeConfigSpec.Builder clientBuilder = new ForgeConfigSpec.Builder();
         CLIENT = new Client(clientBuilder);
@@ -28,9 +28,42 @@ public class TabConfig {
         ModLoadingContext.get().registerConfig(ModConfig.Type.CLIENT, CLIENT_SPEC);
     }
     
+    public static void onConfigLoading(ModConfigEvent.Loading event) {
+        onConfigChanged(event.getConfig());
+    }
+    
+    public static void onConfigReloading(ModConfigEvent.Reloading event) {
+        onConfigChanged(event.getConfig());
+    }
+    
+    private static void onConfigChanged(ModConfig config) {
+        // Reloading fires on the config watcher thread, so only bump the counter here
+        if (config.getSpec() == CLIENT_SPEC) {
+            revision.incrementAndGet();
+        }
+    }
+    
+    /**
+     * Returns a counter that changes every time the client config is loaded or reloaded.
+     */
+    public static int getRevision() {
+        return revision.get();
+    }
+    
     public static class Client {
         public final ForgeConfigSpec.EnumValue<TabPosition> tabPosition;
         public final ForgeConfigSpec.ConfigValue<List<? extends String>> additionalTabBlocks;
+        public final ForgeConfigSpec.BooleanValue optimisticTransitions;
+        public final ForgeConfigSpec.IntValue containerHistorySize;
+        public final ForgeConfigSpec.BooleanValue autoDiscoverContainers;
+        public final ForgeConfigSpec.IntValue maxDiscoveredTabs;
+        public final ForgeConfigSpec.BooleanValue metricsEnabled;
+        public final ForgeConfigSpec.IntValue metricsCsvIntervalSeconds;
+        public final ForgeConfigSpec.BooleanValue batchedRendering;
+        public final ForgeConfigSpec.BooleanValue useTabAtlas;
+        public final ForgeConfigSpec.BooleanValue cacheTabStrip;
+        public final ForgeConfigSpec.IntValue tabStripCacheRefreshMillis;
+        public final ForgeConfigSpec.IntValue backpackPreviewCacheSize;
         
         public Client(ForgeConfigSpec.Builder builder) {
             builder.comment("Yukami Backpack Tab Configuration")
@@ -43,9 +76,63 @@ public class TabConfig {
             
             additionalTabBlocks = builder
                 .comment("Additional blocks that should have tabs enabled",
-                        "Format: modID:block_name (e.g., 'minecraft:chest', 'sophisticatedbackpacks:backpack')")
+                        "Format: modID:block_name (e.g., 'minecraft:chest', 'sophisticatedbackpacks:backpack')",
+                        "Block tags are supported with a leading '#' (e.g., '#forge:chests')",
+                        "All blocks of a mod can be matched with a wildcard (e.g., 'ironchest:*')")
                 .defineList("additionalTabBlocks", Arrays.asList(), obj -> obj instanceof String);
             
+            optimisticTransitions = builder
+                .comment("Keep the current screen and tabs visible while waiting for the server to open the clicked tab",
+                        "Input to the old screen is blocked until the new one arrives")
+                .define("optimisticTransitions", true);
+            
+            containerHistorySize = builder
+                .comment("Number of recently opened containers kept as extra tabs while they are in reach",
+                        "Set to 0 to only show the container that is currently open")
+                .defineInRange("containerHistorySize", 4, 0, 16);
+            
+            autoDiscoverContainers = builder
+                .comment("Also show a tab for every container block entity within reach when a screen opens")
+                .define("autoDiscoverContainers", false);
+            
+            maxDiscoveredTabs = builder
+                .comment("Maximum number of tabs added by autoDiscoverContainers, nearest containers first")
+                .defineInRange("maxDiscoveredTabs", 8, 1, 32);
+            
+            metricsEnabled = builder
+                .comment("Record counters and latency histograms for tab operations, shown by /backpacktab stats")
+                .define("metricsEnabled", false);
+            
+            metricsCsvIntervalSeconds = builder
+                .comment("While metrics are enabled, append them to yukamibackpacktab/metrics.csv in the game directory every this many seconds",
+                        "Set to 0 to disable the CSV dump")
+                .defineInRange("metricsCsvIntervalSeconds", 0, 0, 3600);
+            
+            batchedRendering = builder
+                .comment("Draw all tab backgrounds in one batch and all tab icons in at most two, instead of tab by tab",
+                        "Disable if another mod's rendering changes conflict with the tab strip")
+                .define("batchedRendering", true);
+            
+            useTabAtlas = builder
+                .comment("Draw tab backgrounds from yukamibackpacktab:textures/gui/tabs.png when a resource pack provides it",
+                        "Otherwise the vanilla creative inventory tabs texture is used")
+                .define("useTabAtlas", true);
+            
+            cacheTabStrip = builder
+                .comment("Render the tab strip into an offscreen texture and redraw it only when the tabs, textures or GUI scale change",
+                        "Each frame then draws a single textured quad; disable if shader mods render the strip incorrectly")
+                .define("cacheTabStrip", false);
+            
+            tabStripCacheRefreshMillis = builder
+                .comment("While cacheTabStrip is enabled, also redraw the cached strip this often so animated icons (e.g. enchantment glint) keep moving",
+                        "Set to 0 to only redraw on changes")
+                .defineInRange("tabStripCacheRefreshMillis", 0, 0, 1000);
+            
+            backpackPreviewCacheSize = builder
+                .comment("Number of backpacks whose contents are remembered for the preview shown when hovering a backpack tab",
+                        "Contents are captured when a backpack screen closes; set to 0 to disable the preview")
+                .defineInRange("backpackPreviewCacheSize", 16, 0, 256);
+            
             builder.pop();
         }
     }
@@ -58,48 +145,47 @@ public class TabConfig {
         return CLIENT.additionalTabBlocks.get();
     }
     
-    /**
-     * Get sprite coordinates based on position and state
-     */
-    public static SpriteCoords getSpriteCoords(TabPosition position, boolean active, boolean isFirstTab) {
-        return switch (position) {
-            case TOP_LEFT -> {
-                if (active) {
-                    yield isFirstTab ? new SpriteCoords(0, 32) : new SpriteCoords(26, 32); // [2,1] or [2,2]
-                } else {
-                    yield new SpriteCoords(0, 0); // [1,1] universal disabled
-                }
-            }
-            case TOP_RIGHT -> {
-                if (active) {
-                    yield isFirstTab ? new SpriteCoords(156, 32) : new SpriteCoords(130, 32); // [2,7] or [2,6]
-                } else {
-                    yield new SpriteCoords(0, 0); // [1,1] universal disabled
-                }
-            }
-            case BOTTOM_LEFT -> {
-                if (active) {
-                    yield isFirstTab ? new SpriteCoords(0, 96) : new SpriteCoords(26, 96); // [4,1] or [4,2]
-                } else {
-                    yield new SpriteCoords(0, 64); // [3,1] disabled bottom left
-                }
-            }
-            case BOTTOM_RIGHT -> {
-                if (active) {
-                    yield isFirstTab ? new SpriteCoords(156, 96) : new SpriteCoords(130, 96); // [4,7] or [4,6]
-                } else {
-                    yield new SpriteCoords(156, 64); // [3,7] disabled bottom right
-                }
-            }
-        };
-    }
-    
-    public static class SpriteCoords {
-        public final int u, v;
-        
-        public SpriteCoords(int u, int v) {
-            this.u = u;
-            this.v = v;
-        }
+    public static boolean isOptimisticTransitions() {
+        return CLIENT.optimisticTransitions.get();
+    }
+    
+    public static int getContainerHistorySize() {
+        return CLIENT.containerHistorySize.get();
+    }
+    
+    public static boolean isAutoDiscoverContainers() {
+        return CLIENT.autoDiscoverContainers.get();
+    }
+    
+    public static int getMaxDiscoveredTabs() {
+        return CLIENT.maxDiscoveredTabs.get();
+    }
+    
+    public static boolean isMetricsEnabled() {
+        return CLIENT.metricsEnabled.get();
+    }
+    
+    public static int getMetricsCsvIntervalSeconds() {
+        return CLIENT.metricsCsvIntervalSeconds.get();
+    }
+    
+    public static boolean isBatchedRendering() {
+        return CLIENT.batchedRendering.get();
+    }
+    
+    public static boolean isUseTabAtlas() {
+        return CLIENT.useTabAtlas.get();
+    }
+    
+    public static boolean isCacheTabStrip() {
+        return CLIENT.cacheTabStrip.get();
+    }
+    
+    public static int getTabStripCacheRefreshMillis() {
+        return CLIENT.tabStripCacheRefreshMillis.get();
+    }
+    
+    public static int getBackpackPreviewCacheSize() {
+        return CLIENT.backpackPreviewCacheSize.get();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,103 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.yukami.backpacktab.client.util.BackpackPreviewCache;
+
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.screens.inventory.tooltip.ClientTooltipComponent;
+import net.minecraft.world.inventory.tooltip.TooltipComponent;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientTooltipComponentFactoriesEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Locale;
+
+/**
+ * Tooltip grid of a backpack's contents, shown when hovering its tab. The display stacks are
+ * built from a {@link BackpackPreviewCache.Snapshot} once when the tooltip is prepared and reused
+ * for every frame the tab stays hovered.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
+public class BackpackPreviewTooltip implements TooltipComponent {
+    private static final int COLUMNS = 9;
+    private static final int MAX_ROWS = 6;
+    private static final int CELL_SIZE = 18;
+
+    private final ItemStack[] stacks;
+    private final int hiddenStacks; // Non-empty slots that didn't fit into the grid
+
+    private BackpackPreviewTooltip(ItemStack[] stacks, int hiddenStacks) {
+        this.stacks = stacks;
+        this.hiddenStacks = hiddenStacks;
+    }
+
+    /**
+     * Prepares the preview for a snapshot, or returns null if there is nothing to show.
+     */
+    public static BackpackPreviewTooltip of(BackpackPreviewCache.Snapshot snapshot) {
+        if (snapshot == null || snapshot.getStackCount() == 0) {
+            return null;
+        }
+        ItemStack[] stacks = snapshot.toStacks(COLUMNS * MAX_ROWS);
+        return new BackpackPreviewTooltip(stacks, snapshot.getStackCount() - stacks.length);
+    }
+
+    @SubscribeEvent
+    public static void onRegisterTooltipFactories(RegisterClientTooltipComponentFactoriesEvent event) {
+        event.register(BackpackPreviewTooltip.class, ClientPreview::new);
+    }
+
+    /**
+     * Draws the grid; holds no state of its own, so creating one per frame is cheap.
+     */
+    private static class ClientPreview implements ClientTooltipComponent {
+        private final BackpackPreviewTooltip preview;
+
+        ClientPreview(BackpackPreviewTooltip preview) {
+            this.preview = preview;
+        }
+
+        private int getRows() {
+            return (preview.stacks.length + COLUMNS - 1) / COLUMNS;
+        }
+
+        @Override
+        public int getHeight() {
+            return getRows() * CELL_SIZE + (preview.hiddenStacks > 0 ? 10 : 0) + 2;
+        }
+
+        @Override
+        public int getWidth(Font font) {
+            return Math.min(preview.stacks.length, COLUMNS) * CELL_SIZE;
+        }
+
+        @Override
+        public void renderImage(Font font, int x, int y, GuiGraphics guiGraphics) {
+            for (int i = 0; i < preview.stacks.length; i++) {
+                int itemX = x + (i % COLUMNS) * CELL_SIZE + 1;
+                int itemY = y + (i / COLUMNS) * CELL_SIZE + 1;
+                ItemStack stack = preview.stacks[i];
+                guiGraphics.renderItem(stack, itemX, itemY);
+                guiGraphics.renderItemDecorations(font, stack, itemX, itemY, formatCount(stack.getCount()));
+            }
+            if (preview.hiddenStacks > 0) {
+                guiGraphics.drawString(font, "+" + preview.hiddenStacks, x, y + getRows() * CELL_SIZE + 2, 0xAAAAAA);
+            }
+        }
+
+        /**
+         * Stack upgrades allow counts that don't fit into a slot as plain digits.
+         */
+        private static String formatCount(int count) {
+            if (count <= 1) {
+                return null;
+            }
+            if (count < 1000) {
+                return Integer.toString(count);
+            }
+            return String.format(Locale.ROOT, count < 10_000 ? "%.1fk" : "%.0fk", count / 1000.0);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.level.ChunkEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Caches whether the stored container block is still usable, so render and click handlers only read a flag.
+ * The verdict is recomputed when the tracked block state changes, when the player moves, when the
+ * containing chunk unloads or when the level changes - at most once per client tick.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class ContainerValidityTracker {
+    private static BlockPos trackedPos = null;
+    private static volatile boolean valid = false;
+    private static boolean dirty = false;
+
+    // Inputs of the last verdict, compared each tick to detect changes
+    private static BlockState lastState = null;
+    private static double lastPlayerX = Double.NaN;
+    private static double lastPlayerY = Double.NaN;
+    private static double lastPlayerZ = Double.NaN;
+
+    /**
+     * Starts tracking the given position (or stops tracking when null) and computes its verdict immediately.
+     * @param pos The container position to track.
+     */
+    public static void track(BlockPos pos) {
+        trackedPos = pos == null ? null : pos.immutable();
+        recompute();
+    }
+
+    /**
+     * Returns the cached verdict for the tracked position.
+     * @return True if the tracked block is still a reachable container, false otherwise.
+     */
+    public static boolean isValid() {
+        return valid;
+    }
+
+    /**
+     * Forces a recompute on the next client tick.
+     */
+    public static void markDirty() {
+        dirty = true;
+    }
+
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || trackedPos == null) {
+            return;
+        }
+
+        Player player = Minecraft.getInstance().player;
+        if (player == null) {
+            valid = false;
+            return;
+        }
+
+        // Forge has no client-side block update event, so detect updates by the state reference changing
+        BlockState state = player.level().getBlockState(trackedPos);
+        boolean moved = player.getX() != lastPlayerX || player.getY() != lastPlayerY || player.getZ() != lastPlayerZ;
+        if (dirty || moved || state != lastState) {
+            recompute();
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (trackedPos == null || !event.getLevel().isClientSide()) {
+            return;
+        }
+        ChunkPos chunkPos = event.getChunk().getPos();
+        if (chunkPos.x == SectionPos.blockToSectionCoord(trackedPos.getX())
+                && chunkPos.z == SectionPos.blockToSectionCoord(trackedPos.getZ())) {
+            valid = false;
+            dirty = true;
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel().isClientSide()) {
+            // Positions are meaningless in the next level
+            trackedPos = null;
+            valid = false;
+            lastState = null;
+        }
+    }
+
+    private static void recompute() {
+        TabMetrics.increment(TabMetrics.VALIDITY_CHECKS);
+        dirty = false;
+        Player player = Minecraft.getInstance().player;
+        if (trackedPos == null || player == null) {
+            lastState = null;
+            valid = false;
+            return;
+        }
+
+        lastState = player.level().getBlockState(trackedPos);
+        lastPlayerX = player.getX();
+        lastPlayerY = player.getY();
+        lastPlayerZ = player.getZ();
+        valid = InventoryTabManager.isBlockStillValid(trackedPos);
+    }
+}
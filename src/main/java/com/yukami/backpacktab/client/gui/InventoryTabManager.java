@@ -2,38 +2,57 @@ package com.yukami.backpacktab.client.gui;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.gui.screens.inventory.InventoryScreen;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.state.BlockState;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.client.event.ScreenEvent;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.p3pp3rf1y.sophisticatedbackpacks.client.gui.IBackpackScreen;
-import net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock;
+import org.lwjgl.glfw.GLFW;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import com.yukami.backpacktab.client.adapter.ClientWorldView;
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.jfr.ScreenCloseEvent;
+import com.yukami.backpacktab.client.jfr.ScreenInitEvent;
+import com.yukami.backpacktab.client.metrics.TabMetrics;
 import com.yukami.backpacktab.client.tabs.BackpackTab;
 import com.yukami.backpacktab.client.tabs.ContainerTab;
 import com.yukami.backpacktab.client.tabs.InventoryTab;
 import com.yukami.backpacktab.client.tabs.PlayerTab;
+import com.yukami.backpacktab.client.util.BlockClassificationCache;
 import com.yukami.backpacktab.client.util.CarriedItemUtil;
-import com.yukami.backpacktab.client.config.TabConfig;
-import net.minecraft.resources.ResourceLocation;
+import com.yukami.backpacktab.client.util.ContainerHistory;
+import com.yukami.backpacktab.client.util.ContainerIconCache;
+import com.yukami.backpacktab.client.util.NearbyContainerScan;
+import com.yukami.backpacktab.client.util.EquippedBackpackIndex;
+import com.yukami.backpacktab.client.util.InventoryScreenCache;
+import com.yukami.backpacktab.core.session.SwitchTracker;
+import com.yukami.backpacktab.core.tabs.TabListBuilder;
+import com.yukami.backpacktab.core.trace.RecordingTabSession;
+import com.yukami.backpacktab.core.view.ContainerReach;
 
 @Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
 public class InventoryTabManager {
     
-    private static AbstractContainerScreen<?> currentScreen = null;
-    private static BlockPos storedBlockPos = null; // Store block pos when block GUI opens
-    private static boolean isTabSwitching = false; // Track if we're in the middle of a tab switch
-    private static boolean isFromBlockClick = false; // Track if the next screen is from a block click
+    // Current screen, stored block pos and tab switch flags; can record its inputs for /backpacktab trace
+    private static final RecordingTabSession<BlockPos, AbstractContainerScreen<?>> session = new RecordingTabSession<>(BlockPos::asLong);
     private static final List<InventoryTab> activeTabs = new ArrayList<>(); // List of tabs to render
+    // The switch waiting for its screen; tabs picked meanwhile are coalesced and opened once it lands
+    private static final SwitchTracker<InventoryTab> switches = new SwitchTracker<>(TabTransition.TIMEOUT_NANOS);
+    private static Object switchSourceKey = null; // Key of the tab that was active when the last switch started
+    private static BlockPos switchSourcePos = null; // Stored block pos when the last switch started
+    private static boolean switchUsesServer = false; // The last switch took the server half's route, which echoes its sequence
 
     /**
      * Checks if the given block position corresponds to a container block or backpack block.
@@ -42,68 +61,7 @@ public class InventoryTabManager {
      * @return True if the block is a container or backpack block, false otherwise.
      */
     private static boolean isContainerBlock(Level world, BlockPos pos) {
-        if (world == null || pos == null) {
-            return false;
-        }
-        BlockState blockState = world.getBlockState(pos);
-        try {
-            // Check if it's a BackpackBlock (which doesn't implement MenuProvider)
-            if (blockState.getBlock() instanceof BackpackBlock) {
-                return true;
-            }
-            
-            // Check if the block is in the additional configured blocks list
-            if (isAdditionalTabBlock(blockState)) {
-                return true;
-            }
-            
-            // Check for regular container blocks
-            return blockState.getMenuProvider(world, pos) != null;
-        } catch (Exception e) {
-            return false;
-        }
-    }
-
-    /**
-     * Checks if the given block position corresponds to a backpack block.
-     * @param world The world instance.
-     * @param pos The block position.
-     * @return True if the block is a backpack block, false otherwise.
-     */
-    private static boolean isBackpackBlock(Level world, BlockPos pos) {
-        if (world == null || pos == null) {
-            return false;
-        }
-        BlockState blockState = world.getBlockState(pos);
-        return blockState.getBlock() instanceof BackpackBlock;
-    }
-
-    /**
-     * Checks if the given block state matches any of the additional configured tab blocks.
-     * @param blockState The block state to check.
-     * @return True if the block is in the additional tab blocks configuration, false otherwise.
-     */
-    private static boolean isAdditionalTabBlock(BlockState blockState) {
-        try {
-            // Get the block's resource location (modID:block_name)
-            ResourceLocation blockId = net.minecraftforge.registries.ForgeRegistries.BLOCKS.getKey(blockState.getBlock());
-            if (blockId == null) {
-                return false;
-            }
-            
-            String blockIdString = blockId.toString();
-            
-            // Check if this block ID is in the configured additional tab blocks list
-            for (String configuredBlock : TabConfig.getAdditionalTabBlocks()) {
-                if (configuredBlock != null && configuredBlock.trim().equals(blockIdString)) {
-                    return true;
-                }
-            }
-            
-            return false;
-        } catch (Exception e) {
-            return false;
-        }
+        return BlockClassificationCache.classify(world, pos).isContainer();
     }
 
     /**
@@ -116,128 +74,133 @@ public class InventoryTabManager {
     /**
      * Updates the current screen state and clears previous context if not tab switching.
      */
-    private static void updateScreenState(AbstractContainerScreen<?> screen) {
-        currentScreen = screen;
-        if (!isTabSwitching) {
-            // Don't clear storedBlockPos and isFromBlockClick here - we need them for determineBaseTab
+    private static boolean updateScreenState(AbstractContainerScreen<?> screen) {
+        boolean tabSwitching = session.onScreenInit(screen);
+        if (!tabSwitching) {
+            // Don't clear the stored block pos here - we need it for determineBaseTab
             activeTabs.clear(); // Clear previous tabs only if not tab switching
         }
+        return tabSwitching;
     }
 
     /**
      * Determines the base tab (PlayerTab or ContainerTab) based on the current screen and stored context.
      */
     private static InventoryTab determineBaseTab(AbstractContainerScreen<?> screen) {
-        if (isPlayerInventoryScreen(screen)) {
-            return new PlayerTab();
-        }
-
-        // If we have a stored block position from a right-click event, use it
-        if (isFromBlockClick && storedBlockPos != null) {
-            return new ContainerTab(storedBlockPos);
-        }
-
-        // If we have a stored block position from previous context (tab switching), use it
-        if (storedBlockPos != null) {
-            return new ContainerTab(storedBlockPos);
-        }
-
-        // Default to player tab (for equipped backpacks opened via hotkey/item use)
-        return new PlayerTab();
+        BlockPos containerPos = session.getBaseContainer(isPlayerInventoryScreen(screen));
+        // Default to player tab (player inventory, or equipped backpacks opened via hotkey/item use)
+        return containerPos != null ? new ContainerTab(containerPos) : new PlayerTab();
     }
 
     /**
-     * Rebuilds the list of active tabs based on the base tab and equipped backpack.
-     * Only shows tabs if there's an equipped backpack.
+     * Rebuilds the list of active tabs based on the base tab and equipped backpacks.
+     * Only shows tabs if there's at least one equipped backpack.
+     * @param preserveActive Keep the active states of existing tabs (tab switches and live refreshes).
      */
-    private static void rebuildTabList(InventoryTab baseTab) {
-        // Preserve existing tab active states before clearing
-        ContainerTab existingContainerTab = null;
-        BackpackTab existingBackpackTab = null;
-        PlayerTab existingPlayerTab = null;
-        for (InventoryTab tab : activeTabs) {
-            if (tab instanceof ContainerTab) {
-                existingContainerTab = (ContainerTab) tab;
-            } else if (tab instanceof BackpackTab) {
-                existingBackpackTab = (BackpackTab) tab;
-            } else if (tab instanceof PlayerTab) {
-                existingPlayerTab = (PlayerTab) tab;
-            }
-        }
-        
-        activeTabs.clear(); // Clear before rebuilding to ensure correct order and prevent duplicates
-        
+    private static void rebuildTabList(InventoryTab baseTab, boolean preserveActive) {
         Player player = Minecraft.getInstance().player;
-        BackpackTab equippedBackpackTab = null;
-        if (player != null) {
-            // Get new tab from renderer
-            BackpackTab newEquippedTab = TabRenderer.getEquippedBackpackTab(player);
-            
-            // If we have both existing and new tab, preserve the active state
-            if (existingBackpackTab != null && newEquippedTab != null) {
-                newEquippedTab.setActive(existingBackpackTab.isActive());
-            }
-            
-            equippedBackpackTab = newEquippedTab;
-        }
+        List<BackpackTab> equippedBackpackTabs = player != null ? TabRenderer.getEquippedBackpackTabs(player) : List.of();
+        List<ContainerTab> containerTabs = equippedBackpackTabs.isEmpty() ? List.of() : getExtraContainerTabs(baseTab);
         
-        // REQUIREMENT: Only show tabs if there's an equipped backpack
-        if (equippedBackpackTab == null) {
-            return; // No equipped backpack = no tabs at all
+        List<InventoryTab> tabs = TabListBuilder.build(baseTab, containerTabs, equippedBackpackTabs, activeTabs, preserveActive);
+        activeTabs.clear(); // Clear before refilling to ensure correct order and prevent duplicates
+        activeTabs.addAll(tabs);
+        TabRenderer.invalidateRenderModel(); // Tab list changes, so the cached layout is stale
+    }
+
+    /**
+     * Builds tabs for recently used containers and, when auto-discovery is enabled, every other
+     * container in reach, skipping the base tab's container.
+     * History entries are only validated here, when they are about to be shown; entries out of reach
+     * are hidden, entries whose container is gone are dropped from the history.
+     */
+    private static List<ContainerTab> getExtraContainerTabs(InventoryTab baseTab) {
+        Level world = Minecraft.getInstance().level;
+        Player player = Minecraft.getInstance().player;
+        List<BlockPos> history = ContainerHistory.getEntries();
+        boolean discover = TabConfig.isAutoDiscoverContainers();
+        if (world == null || player == null || (history.isEmpty() && !discover)) {
+            return List.of();
         }
         
-        // Preserve active state for base tab
-        if (baseTab instanceof ContainerTab && existingContainerTab != null) {
-            baseTab.setActive(existingContainerTab.isActive());
-        } else if (baseTab instanceof PlayerTab && existingPlayerTab != null) {
-            baseTab.setActive(existingPlayerTab.isActive());
+        // Canonical positions already shown, so double chest halves and history entries aren't repeated
+        Set<BlockPos> shown = new HashSet<>();
+        if (baseTab instanceof ContainerTab containerTab && containerTab.getContainerPos() != null) {
+            shown.add(ContainerHistory.canonicalize(world, containerTab.getContainerPos()));
         }
-        
-        // Special case: Player opens backpack block while having equipped backpack
-        // Show block tab first, equipped backpack second, no player tab
-        if (baseTab instanceof ContainerTab && storedBlockPos != null && 
-            isBackpackBlock(Minecraft.getInstance().level, storedBlockPos)) {
-            activeTabs.add(baseTab); // Block backpack tab first
-            activeTabs.add(equippedBackpackTab); // Equipped backpack tab second
-            
-            // Only set active states if not tab switching (initial screen open)
-            if (!isTabSwitching) {
-                baseTab.setActive(true); // Block backpack tab is active
-                equippedBackpackTab.setActive(false); // Equipped backpack tab is inactive
+        List<ContainerTab> tabs = new ArrayList<>();
+        List<BlockPos> removed = null;
+        for (BlockPos pos : history) {
+            if (shown.contains(pos)) {
+                continue;
             }
-            return; // Don't add player tab in this case
+            if (isBlockStillValid(pos)) {
+                shown.add(pos);
+                tabs.add(new ContainerTab(pos));
+            } else if (world.isLoaded(pos) && !isContainerBlock(world, pos)) {
+                if (removed == null) {
+                    removed = new ArrayList<>();
+                }
+                removed.add(pos);
+            }
+        }
+        if (removed != null) {
+            removed.forEach(ContainerHistory::remove);
         }
         
-        // Normal case: Add base tab if it exists
-        if (baseTab != null) {
-            activeTabs.add(baseTab);
-            // Only set active state if not tab switching
-            if (!isTabSwitching) {
-                baseTab.setActive(true); // Base tab is active
+        if (discover) {
+            int added = 0;
+            for (BlockPos pos : NearbyContainerScan.findNearby(world, player, TabConfig.getMaxDiscoveredTabs() + shown.size())) {
+                if (added >= TabConfig.getMaxDiscoveredTabs()) {
+                    break;
+                }
+                if (shown.add(ContainerHistory.canonicalize(world, pos))) {
+                    tabs.add(new ContainerTab(pos));
+                    added++;
+                }
             }
         }
+        return tabs;
+    }
 
-        // Add equipped backpack tab
-        activeTabs.add(equippedBackpackTab);
-        // Only set active state if not tab switching
-        if (!isTabSwitching) {
-            equippedBackpackTab.setActive(baseTab == null); // Active only if no base tab
+    /**
+     * Forge has no client-side block entity data event, and backpack block entities can change their backpack
+     * without a state change, so every container tab's icon is checked against its block entity each tick.
+     * @return True if an icon was dropped and the strip must be rebuilt.
+     */
+    private static boolean revalidateContainerIcons(Level world) {
+        boolean changed = false;
+        for (InventoryTab tab : activeTabs) {
+            if (tab instanceof ContainerTab containerTab && containerTab.getContainerPos() != null) {
+                changed |= ContainerIconCache.revalidate(world, containerTab.getContainerPos());
+            }
         }
+        return changed;
     }
 
-
     /**
      * Resets all static state variables of the tab manager.
      */
     private static void resetState() {
-        storedBlockPos = null;
-        currentScreen = null;
-        isTabSwitching = false;
-        isFromBlockClick = false;
+        session.reset();
+        switches.reset();
+        ContainerValidityTracker.track(null);
         activeTabs.clear(); // Clear active tabs on reset
+        TabRenderer.invalidateRenderModel();
+        TabRenderer.resetScroll();
+        TabStripCache.release(); // No strip to draw until the next screen opens
         CarriedItemUtil.reset(); // Also reset any stashed items
     }
 
+    private static boolean hasPlayerTab() {
+        for (InventoryTab tab : activeTabs) {
+            if (tab instanceof PlayerTab) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     @SubscribeEvent
     public static void onBlockRightClick(PlayerInteractEvent.RightClickBlock event) {
         // Only handle client-side events
@@ -246,8 +209,8 @@ public class InventoryTabManager {
             Level world = event.getLevel();
             
             if (isContainerBlock(world, clickedPos)) {
-                storedBlockPos = clickedPos;
-                isFromBlockClick = true;
+                session.onContainerBlockClicked(clickedPos);
+                ContainerValidityTracker.track(clickedPos);
             }
         }
     }
@@ -256,25 +219,87 @@ public class InventoryTabManager {
     public static void onScreenInit(ScreenEvent.Init.Post event) {
         if (!(event.getScreen() instanceof AbstractContainerScreen<?> containerScreen)) return;
         
+        ScreenInitEvent initEvent = new ScreenInitEvent();
+        initEvent.begin();
+        InventoryTab target = switches.getTarget();
+        // The server half names the switch it opens a screen for; the vanilla routes can only be matched by screen type
+        boolean matchesTarget = target != null && (switchUsesServer ? switches.isAnswered() : target.matchesCurrentScreen(containerScreen));
+        int switchSequence = switches.onScreenInit(matchesTarget, System.nanoTime());
+        if (switchSequence != -1) {
+            TabTransition.onScreenInit(containerScreen); // A stale screen doesn't end the pending switch
+        }
+        boolean wasTabSwitching = updateScreenState(containerScreen);
         
-        updateScreenState(containerScreen);
-        
-        InventoryTab baseTab = determineBaseTab(containerScreen);
-        rebuildTabList(baseTab);
-        
+        ProfilerFiller profiler = Minecraft.getInstance().getProfiler();
+        profiler.push("backpackTabScreenInit");
+        InventoryTab baseTab;
+        if (wasTabSwitching && InventoryScreenCache.isReused(containerScreen) && !activeTabs.isEmpty() && activeTabs.get(0) instanceof PlayerTab) {
+            // The cached inventory reopened from a strip based on the player tab: the list is the same,
+            // only the active tab moved, and the live refresh on tick covers equipment changes
+            baseTab = activeTabs.get(0);
+        } else {
+            baseTab = determineBaseTab(containerScreen);
+            if (baseTab instanceof ContainerTab containerTab) {
+                // Only containers that actually opened a screen make it into the history
+                ContainerHistory.record(Minecraft.getInstance().level, containerTab.getContainerPos());
+            }
+            rebuildTabList(baseTab, wasTabSwitching);
+        }
+        profiler.pop();
         
-        // Reset flags after screen opens
-        isTabSwitching = false;
-        isFromBlockClick = false;
+        if (switchSequence == -1) {
+            // Answer to an earlier request: the in-flight switch's screen replaces this one, so keep switching
+            session.onStaleScreenInit();
+            TabMetrics.increment(TabMetrics.SWITCH_STALE_INITS);
+        } else {
+            session.onScreenInitDone();
+        }
         
         // Retrieve any stashed carried item after screen opens
         Player player = Minecraft.getInstance().player;
         if (player instanceof net.minecraft.client.player.LocalPlayer localPlayer) {
+            if (!isPlayerInventoryScreen(containerScreen) && hasPlayerTab()) {
+                InventoryScreenCache.prepare(localPlayer); // Built now so switching to the player tab only runs init; kept for reuse
+            }
             net.minecraft.client.multiplayer.MultiPlayerGameMode gameMode = Minecraft.getInstance().gameMode;
             if (gameMode != null) {
                 CarriedItemUtil.unstashCarriedItem(localPlayer, gameMode, containerScreen.getMenu());
             }
         }
+        
+        if (initEvent.isEnabled()) {
+            initEvent.screen = containerScreen.getClass().getSimpleName();
+            initEvent.switchSequence = switchSequence;
+        }
+        initEvent.commitWith(wasTabSwitching ? TabTransition.getLastTabType() : baseTab.getClass().getSimpleName(),
+                containerScreen.getMenu().containerId, session.getStoredBlockPos());
+    }
+    
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END) return;
+        
+        Player player = Minecraft.getInstance().player;
+        if (player == null) return;
+        
+        ProfilerFiller profiler = Minecraft.getInstance().getProfiler();
+        profiler.push("backpackTabTick");
+        // Refresh the tab strip live when a backpack is equipped or removed while a screen is open
+        AbstractContainerScreen<?> currentScreen = session.getCurrentScreen();
+        if (EquippedBackpackIndex.tick(player) && currentScreen != null && !session.isTabSwitching()) {
+            rebuildTabList(determineBaseTab(currentScreen), true);
+        }
+        if (currentScreen != null && revalidateContainerIcons(player.level())) {
+            TabRenderer.invalidateRenderModel();
+        }
+        // Open the tab picked while the last switch was in flight, once its screen is up
+        if (currentScreen != null && Minecraft.getInstance().screen == currentScreen) {
+            InventoryTab queued = switches.takeQueued(System.nanoTime());
+            if (queued != null) {
+                openQueuedTab(queued, currentScreen);
+            }
+        }
+        profiler.pop();
     }
     
     @SubscribeEvent
@@ -282,21 +307,107 @@ public class InventoryTabManager {
         if (!(event.getScreen() instanceof AbstractContainerScreen<?> containerScreen)) return;
         
         // Allow rendering for either the current tracked screen OR the survival inventory
-        if (containerScreen != currentScreen && !(containerScreen instanceof InventoryScreen)) return;
+        if (containerScreen != session.getCurrentScreen() && !(containerScreen instanceof InventoryScreen)) return;
         
+        TabTransition.onFrame();
         TabRenderer.renderTabs(event.getGuiGraphics(), containerScreen, event.getMouseX(), event.getMouseY());
     }
 
     @SubscribeEvent
     public static void onMouseClick(ScreenEvent.MouseButtonPressed.Pre event) {
         if (!(event.getScreen() instanceof AbstractContainerScreen<?> containerScreen)) return;
-        if (containerScreen != currentScreen) return; // Only handle clicks for the managed screen
+        boolean blocked = TabTransition.shouldBlockInput(containerScreen); // The old menu is being replaced, don't let clicks reach it
+        if (containerScreen != session.getCurrentScreen()) { // Only handle clicks for the managed screen
+            if (blocked) {
+                event.setCanceled(true);
+            }
+            return;
+        }
         
-        isTabSwitching = true; // Mark that we're switching tabs
-        if (TabRenderer.handleTabClick(event.getMouseX(), event.getMouseY(), event.getButton(), containerScreen)) {
+        int clicked = TabRenderer.getClickedTab(event.getMouseX(), event.getMouseY(), event.getButton(), containerScreen);
+        if (clicked != -1 && switches.isInFlight(System.nanoTime())) {
+            // Nothing is sent until the pending switch lands; the clicked tab is opened after it
+            coalesceSwitch(clicked);
+            event.setCanceled(true);
+            return;
+        }
+        if (blocked) {
+            event.setCanceled(true);
+            return;
+        }
+        
+        // Scroll arrows only move the strip, they don't start a switch
+        if (TabRenderer.handleArrowClick(event.getMouseX(), event.getMouseY(), event.getButton(), containerScreen)) {
+            event.setCanceled(true);
+            return;
+        }
+        if (clicked == -1) return;
+        
+        session.beginTabClick(); // Mark that we're switching tabs
+        boolean handled = TabRenderer.openTab(clicked, containerScreen);
+        session.endTabClick(handled);
+        if (handled) {
+            event.setCanceled(true);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onMouseRelease(ScreenEvent.MouseButtonReleased.Pre event) {
+        if (TabTransition.shouldBlockInput(event.getScreen())) {
+            event.setCanceled(true);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onMouseDrag(ScreenEvent.MouseDragged.Pre event) {
+        if (TabTransition.shouldBlockInput(event.getScreen())) {
+            event.setCanceled(true);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onMouseScroll(ScreenEvent.MouseScrolled.Pre event) {
+        if (TabTransition.shouldBlockInput(event.getScreen())) {
+            event.setCanceled(true);
+            return;
+        }
+        if (event.getScreen() instanceof AbstractContainerScreen<?> containerScreen && containerScreen == session.getCurrentScreen()
+                && TabRenderer.handleScroll(event.getMouseX(), event.getMouseY(), event.getScrollDelta(), containerScreen)) {
+            event.setCanceled(true);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onKeyPress(ScreenEvent.KeyPressed.Pre event) {
+        // Escape still works so the player can always leave the screen
+        boolean blocked = event.getKeyCode() != GLFW.GLFW_KEY_ESCAPE && TabTransition.shouldBlockInput(event.getScreen());
+        if (!(event.getScreen() instanceof AbstractContainerScreen<?> containerScreen) || containerScreen != session.getCurrentScreen()) {
+            if (blocked) {
+                event.setCanceled(true);
+            }
+            return;
+        }
+        
+        boolean inFlight = switches.isInFlight(System.nanoTime());
+        int current = inFlight && switches.getQueued() != null ? indexOfTab(switches.getQueued()) : -1; // Keep cycling from the queued tab
+        int target = TabKeyMappings.getTargetTab(event.getKeyCode(), event.getScanCode(), containerScreen, activeTabs, current);
+        if (target != -1 && inFlight) {
+            coalesceSwitch(target);
+            event.setCanceled(true);
+            return;
+        }
+        if (blocked) {
+            event.setCanceled(true);
+            return;
+        }
+        if (target == -1) return;
+        
+        // Same switch path as a click on the tab
+        session.beginTabClick();
+        boolean handled = TabRenderer.openTab(target, containerScreen);
+        session.endTabClick(handled);
+        if (handled) {
             event.setCanceled(true);
-        } else {
-            isTabSwitching = false; // Reset if no tab was clicked
         }
     }
 
@@ -316,12 +427,21 @@ public class InventoryTabManager {
 
     @SubscribeEvent
     public static void onScreenClose(ScreenEvent.Closing event) {
-        if (event.getScreen() == currentScreen) {
-            if (!isTabSwitching) {
-                resetState(); // Use the centralized reset method
-                handleCarriedItemCleanup((AbstractContainerScreen<?>) event.getScreen());
-            }
-            currentScreen = null;
+        AbstractContainerScreen<?> currentScreen = session.getCurrentScreen();
+        if (event.getScreen() != currentScreen) return;
+        
+        ScreenCloseEvent closeEvent = new ScreenCloseEvent();
+        if (closeEvent.isEnabled()) {
+            boolean tabSwitching = session.isTabSwitching();
+            closeEvent.screen = currentScreen.getClass().getSimpleName();
+            closeEvent.tabSwitch = tabSwitching;
+            closeEvent.commitWith(tabSwitching ? TabTransition.getLastTabType() : null,
+                    currentScreen.getMenu().containerId, session.getStoredBlockPos());
+        }
+        if (session.onScreenClose(currentScreen)) {
+            TabTransition.cancel();
+            resetState(); // Use the centralized reset method
+            handleCarriedItemCleanup(currentScreen);
         }
     }
 
@@ -330,8 +450,156 @@ public class InventoryTabManager {
         resetState(); // Use the centralized reset method
     }
 
+    /**
+     * Returns the session, so its inputs can be recorded for replay.
+     */
+    public static RecordingTabSession<BlockPos, AbstractContainerScreen<?>> getSession() {
+        return session;
+    }
+
     public static BlockPos getStoredBlockPos() {
-        return storedBlockPos;
+        return session.getStoredBlockPos();
+    }
+    
+    /**
+     * Called right before a tab's open(), which sends the switch to the server (or opens an instant screen).
+     */
+    static void onSwitchStarted(InventoryTab tab) {
+        switches.begin(tab, System.nanoTime());
+        switchUsesServer = tab.usesServerSwitch();
+        switchSourcePos = session.getStoredBlockPos();
+        switchSourceKey = null;
+        for (InventoryTab activeTab : activeTabs) {
+            if (activeTab.isActive()) {
+                switchSourceKey = activeTab.getTabKey();
+                break;
+            }
+        }
+    }
+    
+    /**
+     * Called when a tab's open() sent nothing and opened no screen, so the switch that was just started
+     * would otherwise block input until it times out.
+     */
+    static void onSwitchNotSent() {
+        switches.reset();
+        TabTransition.cancel();
+        if (session.getCurrentScreen() == null) {
+            resetState(); // open() closed the screen while the switch flag was set
+        } else {
+            session.onTabUnavailable();
+            restoreSwitchSource();
+        }
+    }
+    
+    /**
+     * Called when a switch timed out without its screen.
+     * @param closeSource True if the vanilla route already closed the old screen's menu, so it must not stay usable.
+     */
+    static void onSwitchTimedOut(AbstractContainerScreen<?> source, boolean closeSource) {
+        switches.reset();
+        session.onTabUnavailable(); // No screen is coming, so the close below ends the session
+        Player player = Minecraft.getInstance().player;
+        if (closeSource && player instanceof net.minecraft.client.player.LocalPlayer localPlayer && Minecraft.getInstance().screen == source) {
+            localPlayer.clientSideCloseContainer();
+        } else {
+            restoreSwitchSource();
+        }
+    }
+    
+    /**
+     * Returns the number of the switch being started, which the server half echoes in its reply.
+     */
+    public static int getSwitchSequence() {
+        return switches.getSequence();
+    }
+    
+    /**
+     * Called when the server half accepted a switch; its open packet follows.
+     */
+    public static void onSwitchAccepted(int sequence) {
+        switches.onAnswered(sequence);
+    }
+    
+    /**
+     * Called when the server half opened nothing for a switch. If it closed the old menu, its close packet
+     * arrived first and the screen is already gone; otherwise the old screen stays usable.
+     */
+    public static void onSwitchRejected(int sequence) {
+        if (sequence != switches.getSequence() || !switches.isInFlight(System.nanoTime())) {
+            return; // Answer to a superseded switch, or this one already timed out
+        }
+        AbstractContainerScreen<?> currentScreen = session.getCurrentScreen();
+        TabMetrics.increment(TabMetrics.SWITCH_REJECTED);
+        switches.reset();
+        TabTransition.cancel();
+        if (currentScreen == null) {
+            resetState();
+        } else {
+            session.onTabUnavailable();
+            restoreSwitchSource();
+        }
+    }
+    
+    /**
+     * Gives the active state and the stored block pos back to the screen the abandoned switch started from,
+     * so the validity tracker doesn't follow a container whose screen never opened.
+     */
+    private static void restoreSwitchSource() {
+        setStoredBlockPos(switchSourcePos);
+        for (InventoryTab tab : activeTabs) {
+            tab.setActive(tab.getTabKey().equals(switchSourceKey));
+        }
+        TabRenderer.invalidateRenderModel(); // Sprites depend on the active state
+    }
+    
+    private static void coalesceSwitch(int index) {
+        switches.coalesce(activeTabs.get(index));
+        TabMetrics.increment(TabMetrics.SWITCH_COALESCED);
+    }
+    
+    /**
+     * Opens a coalesced tab on the screen the previous switch landed on, unless it's already active there.
+     * The tab list was rebuilt in between, so the tab is looked up by its key.
+     */
+    private static void openQueuedTab(InventoryTab queued, AbstractContainerScreen<?> currentScreen) {
+        int index = indexOfTab(queued);
+        if (index == -1 || activeTabs.get(index).isActive()) {
+            return;
+        }
+        session.beginTabClick();
+        boolean handled = TabRenderer.openTab(index, currentScreen);
+        session.endTabClick(handled);
+    }
+    
+    private static int indexOfTab(InventoryTab tab) {
+        Object key = tab.getTabKey();
+        for (int i = 0; i < activeTabs.size(); i++) {
+            if (activeTabs.get(i).getTabKey().equals(key)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    /**
+     * Called when a clicked tab can no longer be opened: ends the switch and drops the stale tab.
+     */
+    static void onTabUnavailable() {
+        session.onTabUnavailable();
+        AbstractContainerScreen<?> currentScreen = session.getCurrentScreen();
+        if (currentScreen != null) {
+            rebuildTabList(determineBaseTab(currentScreen), true);
+        }
+    }
+    
+    /**
+     * Updates the stored block position and points the validity tracker at it.
+     * Package-private so a clicked container tab becomes the base tab of the next screen.
+     */
+    static void setStoredBlockPos(BlockPos pos) {
+        session.setStoredBlockPos(pos);
+        ContainerValidityTracker.track(pos);
     }
     
     /**
@@ -339,7 +607,7 @@ public class InventoryTabManager {
      */
     public static void handleInvalidBlock() {
         
-        if (currentScreen instanceof IBackpackScreen) {
+        if (session.getCurrentScreen() instanceof IBackpackScreen) {
             Player player = Minecraft.getInstance().player;
             if (player != null) {
                 player.closeContainer(); // Use Sophisticated Backpacks' official method - this handles carried items properly
@@ -350,51 +618,12 @@ public class InventoryTabManager {
     
     /**
      * Validates if the stored block is still accessible by the player.
+     * This does the full world lookup; per-frame callers should use {@link ContainerValidityTracker#isValid()}.
      * @param pos The position of the block to validate.
      * @return True if the block is still valid and accessible, false otherwise.
      */
     public static boolean isBlockStillValid(BlockPos pos) {
-        if (pos == null) {
-            return false;
-        }
-        
-        Player player = Minecraft.getInstance().player;
-        if (player == null) {
-            return false;
-        }
-        
-        Level world = player.level();
-        if (world == null) {
-            return false;
-        }
-        
-        BlockState blockState = world.getBlockState(pos);
-        if (blockState.isAir()) {
-            return false;
-        }
-        
-        // Check distance (vanilla uses 8 blocks for most containers, squared is 64)
-        double distanceSq = player.distanceToSqr(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
-        if (distanceSq > 64.0) {
-            return false;
-        }
-        
-        try {
-            // Check if it's a BackpackBlock (which doesn't implement MenuProvider)
-            if (blockState.getBlock() instanceof BackpackBlock) {
-                return true; // BackpackBlocks are always valid if they exist
-            }
-            
-            // Check if the block is in the additional configured blocks list
-            if (isAdditionalTabBlock(blockState)) {
-                return true; // Additional configured blocks are always valid if they exist
-            }
-            
-            // Check for regular container blocks
-            return blockState.getMenuProvider(world, pos) != null;
-        } catch (Exception e) {
-            return false; // If any error occurs, consider it invalid
-        }
+        return ContainerReach.isStillValid(ClientWorldView.INSTANCE, pos);
     }
 
     public static List<InventoryTab> getActiveTabs() {
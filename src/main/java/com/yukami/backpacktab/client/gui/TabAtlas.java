@@ -0,0 +1,47 @@
+package com.yukami.backpacktab.client.gui;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import com.yukami.backpacktab.client.config.TabConfig;
+
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.resources.ResourceManager;
+import net.minecraft.server.packs.resources.ResourceManagerReloadListener;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientReloadListenersEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Resolves the texture the tab backgrounds are drawn from. Resource packs can provide
+ * {@code yukamibackpacktab:textures/gui/tabs.png} with the same 256x256 layout as the vanilla creative
+ * tabs texture to restyle only our tabs; without it the vanilla texture is used.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
+public class TabAtlas {
+    public static final ResourceLocation VANILLA_TABS = ResourceLocation.fromNamespaceAndPath("minecraft", "textures/gui/container/creative_inventory/tabs.png");
+    public static final ResourceLocation MOD_TABS = ResourceLocation.fromNamespaceAndPath("yukamibackpacktab", "textures/gui/tabs.png");
+
+    // Whether a resource pack provides the mod atlas, checked on every resource reload
+    private static boolean modAtlasPresent = false;
+
+    @SubscribeEvent
+    public static void onRegisterReloadListeners(RegisterClientReloadListenersEvent event) {
+        event.registerReloadListener((ResourceManagerReloadListener) TabAtlas::onResourceManagerReload);
+    }
+
+    private static void onResourceManagerReload(ResourceManager resourceManager) {
+        modAtlasPresent = resourceManager.getResource(MOD_TABS).isPresent();
+        if (modAtlasPresent) {
+            LOGGER.info("Using tab atlas {}", MOD_TABS);
+        }
+        TabRenderer.invalidateRenderModel(); // Icon models are cached in the render model
+    }
+
+    /**
+     * Returns the texture to draw tab backgrounds from.
+     */
+    public static ResourceLocation getTexture() {
+        return modAtlasPresent && TabConfig.isUseTabAtlas() ? MOD_TABS : VANILLA_TABS;
+    }
+}
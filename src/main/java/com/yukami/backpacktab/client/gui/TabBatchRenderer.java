@@ -0,0 +1,100 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.mojang.blaze3d.platform.Lighting;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.PoseStack;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.client.renderer.LightTexture;
+import net.minecraft.client.renderer.entity.ItemRenderer;
+import net.minecraft.client.renderer.texture.OverlayTexture;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.world.item.ItemDisplayContext;
+import net.minecraft.world.item.ItemStack;
+import org.joml.Matrix4f;
+
+/**
+ * Draws the tab strip in batches instead of tab by tab: every background in one buffered draw, then
+ * every icon with one flush per lighting mode. {@link GuiGraphics#renderItem} flushes and switches
+ * lighting once per item, so a strip of n tabs would otherwise cost 2n+ draws and state changes.
+ */
+public class TabBatchRenderer {
+    private static final float ATLAS_SIZE = 256.0F;
+
+    /**
+     * Draws all tab backgrounds from the given texture in a single draw call.
+     */
+    public static void drawBackgrounds(GuiGraphics guiGraphics, ResourceLocation texture, TabRenderModel model) {
+        RenderSystem.setShaderTexture(0, texture);
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        Matrix4f matrix = guiGraphics.pose().last().pose();
+        BufferBuilder buffer = Tesselator.getInstance().getBuilder();
+        buffer.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        for (int i = 0; i < model.getSlotCount(); i++) {
+            float x0 = model.getTabX(i);
+            float y0 = model.getRenderY(i);
+            float x1 = x0 + TabRenderer.TAB_TEXTURE_WIDTH;
+            float y1 = y0 + model.getRenderHeight(i);
+            float u0 = model.getSpriteU(i) / ATLAS_SIZE;
+            float v0 = model.getSpriteV(i) / ATLAS_SIZE;
+            float u1 = (model.getSpriteU(i) + TabRenderer.TAB_TEXTURE_WIDTH) / ATLAS_SIZE;
+            float v1 = (model.getSpriteV(i) + model.getRenderHeight(i)) / ATLAS_SIZE;
+            buffer.vertex(matrix, x0, y0, 0.0F).uv(u0, v0).endVertex();
+            buffer.vertex(matrix, x0, y1, 0.0F).uv(u0, v1).endVertex();
+            buffer.vertex(matrix, x1, y1, 0.0F).uv(u1, v1).endVertex();
+            buffer.vertex(matrix, x1, y0, 0.0F).uv(u1, v0).endVertex();
+        }
+        BufferUploader.drawWithShader(buffer.end());
+    }
+
+    /**
+     * Draws all tab icons like {@link GuiGraphics#renderItem}, but flat-lit and block-lit models are
+     * each drawn in one pass with a single flush, so lighting changes at most twice per frame.
+     */
+    public static void drawIcons(GuiGraphics guiGraphics, TabRenderModel model, int itemXOffset, int itemYOffset) {
+        if (drawIconPass(guiGraphics, model, itemXOffset, itemYOffset, false)) {
+            Lighting.setupFor3DItems(); // GUI default, restored like renderItem does
+        }
+        drawIconPass(guiGraphics, model, itemXOffset, itemYOffset, true);
+    }
+
+    private static boolean drawIconPass(GuiGraphics guiGraphics, TabRenderModel model, int itemXOffset, int itemYOffset, boolean blockLight) {
+        ItemRenderer itemRenderer = Minecraft.getInstance().getItemRenderer();
+        PoseStack pose = guiGraphics.pose();
+        boolean drewAny = false;
+        for (int i = 0; i < model.getSlotCount(); i++) {
+            ItemStack icon = model.getIcon(i);
+            if (icon.isEmpty()) {
+                continue;
+            }
+            BakedModel bakedModel = model.getIconModel(i);
+            if (bakedModel.usesBlockLight() != blockLight) {
+                continue;
+            }
+            if (!drewAny && !blockLight) {
+                Lighting.setupForFlatItems();
+            }
+            drewAny = true;
+
+            pose.pushPose();
+            pose.translate(model.getTabX(i) + itemXOffset + 8, model.getTabY() + itemYOffset + 8, 150);
+            pose.mulPoseMatrix(new Matrix4f().scaling(1.0F, -1.0F, 1.0F));
+            pose.scale(16.0F, 16.0F, 16.0F);
+            itemRenderer.render(icon, ItemDisplayContext.GUI, false, pose, guiGraphics.bufferSource(),
+                    LightTexture.FULL_BRIGHT, OverlayTexture.NO_OVERLAY, bakedModel);
+            pose.popPose();
+        }
+        if (drewAny) {
+            guiGraphics.flush();
+        }
+        return drewAny;
+    }
+}
@@ -0,0 +1,96 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.mojang.blaze3d.platform.InputConstants;
+import com.yukami.backpacktab.client.tabs.InventoryTab;
+
+import net.minecraft.client.KeyMapping;
+import net.minecraft.client.gui.components.EditBox;
+import net.minecraft.client.gui.components.events.GuiEventListener;
+import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
+import net.minecraft.client.gui.screens.recipebook.RecipeUpdateListener;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterKeyMappingsEvent;
+import net.minecraftforge.client.settings.KeyConflictContext;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.List;
+
+/**
+ * Key mappings for switching tabs without the mouse: next and previous tab (wrapping around) and
+ * direct tabs 1 to 9, which are unbound by default. They only apply inside container screens.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.MOD, value = Dist.CLIENT)
+public class TabKeyMappings {
+    private static final String CATEGORY = "key.categories.yukamibackpacktab";
+
+    public static final KeyMapping NEXT_TAB = new KeyMapping("key.yukamibackpacktab.next_tab",
+        KeyConflictContext.GUI, InputConstants.Type.KEYSYM, InputConstants.KEY_RBRACKET, CATEGORY);
+    public static final KeyMapping PREVIOUS_TAB = new KeyMapping("key.yukamibackpacktab.previous_tab",
+        KeyConflictContext.GUI, InputConstants.Type.KEYSYM, InputConstants.KEY_LBRACKET, CATEGORY);
+    private static final KeyMapping[] DIRECT_TABS = new KeyMapping[9];
+
+    static {
+        for (int i = 0; i < DIRECT_TABS.length; i++) {
+            DIRECT_TABS[i] = new KeyMapping("key.yukamibackpacktab.tab_" + (i + 1),
+                KeyConflictContext.GUI, InputConstants.UNKNOWN, CATEGORY);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onRegisterKeyMappings(RegisterKeyMappingsEvent event) {
+        event.register(NEXT_TAB);
+        event.register(PREVIOUS_TAB);
+        for (KeyMapping mapping : DIRECT_TABS) {
+            event.register(mapping);
+        }
+    }
+
+    /**
+     * Resolves a key press to the index of the tab it switches to.
+     * @param current Index next and previous count from, or -1 for the active tab.
+     * @return The target index in the tab list, or -1 if the key isn't a tab key, the target is already
+     *         the current tab or doesn't exist, or the screen is taking text input.
+     */
+    public static int getTargetTab(int keyCode, int scanCode, AbstractContainerScreen<?> screen, List<InventoryTab> tabs, int current) {
+        if (tabs.isEmpty() || isTyping(screen)) {
+            return -1;
+        }
+        InputConstants.Key key = InputConstants.getKey(keyCode, scanCode);
+        int active = current != -1 ? current : getActiveIndex(tabs);
+        int target = -1;
+        if (NEXT_TAB.isActiveAndMatches(key)) {
+            target = active == -1 ? 0 : (active + 1) % tabs.size();
+        } else if (PREVIOUS_TAB.isActiveAndMatches(key)) {
+            target = active == -1 ? tabs.size() - 1 : (active - 1 + tabs.size()) % tabs.size();
+        } else {
+            for (int i = 0; i < DIRECT_TABS.length; i++) {
+                if (DIRECT_TABS[i].isActiveAndMatches(key)) {
+                    target = i < tabs.size() ? i : -1;
+                    break;
+                }
+            }
+        }
+        return target == active ? -1 : target;
+    }
+
+    private static int getActiveIndex(List<InventoryTab> tabs) {
+        for (int i = 0; i < tabs.size(); i++) {
+            if (tabs.get(i).isActive()) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Keys belong to a focused text field, including the recipe book search.
+     */
+    private static boolean isTyping(AbstractContainerScreen<?> screen) {
+        GuiEventListener focused = screen.getFocused();
+        if (focused instanceof EditBox editBox && editBox.canConsumeInput()) {
+            return true;
+        }
+        return screen instanceof RecipeUpdateListener listener && focused == listener.getRecipeBookComponent();
+    }
+}
@@ -0,0 +1,197 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.tabs.InventoryTab;
+import com.yukami.backpacktab.core.layout.TabStripGeometry;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
+import net.minecraft.client.resources.model.BakedModel;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.List;
+
+/**
+ * Immutable snapshot of the tab strip for one screen: the core geometry (tab rectangles, sprite UVs,
+ * hit-test index) plus icons, their baked models and hover texts. Rendering and click handling only read from it, so
+ * the per-frame cost is a few array lookups and no allocation.
+ * Only the visible window of tabs is snapshotted; per-tab getters take slot indices.
+ */
+public class TabRenderModel {
+
+    private final int screenLeft;
+    private final int screenTop;
+    private final int screenWidth;
+    private final int screenHeight;
+    private final int viewportWidth;
+    private final int configRevision;
+
+    private final TabStripGeometry geometry;
+    private final ItemStack[] icons;
+    private final Component[] hoverTexts;
+    private final BakedModel[] iconModels; // Resolved on first use; the model is dropped on resource reload
+
+    private TabRenderModel(AbstractContainerScreen<?> screen, int configRevision, TabStripGeometry geometry,
+                           ItemStack[] icons, Component[] hoverTexts) {
+        this.screenLeft = screen.getGuiLeft();
+        this.screenTop = screen.getGuiTop();
+        this.screenWidth = screen.getXSize();
+        this.screenHeight = screen.getYSize();
+        this.viewportWidth = screen.width;
+        this.configRevision = configRevision;
+        this.geometry = geometry;
+        this.icons = icons;
+        this.hoverTexts = hoverTexts;
+        this.iconModels = new BakedModel[icons.length];
+    }
+
+    /**
+     * Builds a snapshot for the given screen and tab list. The tab list must not be empty.
+     * @param scrollOffset Requested index of the first tab when not all tabs fit on screen.
+     */
+    public static TabRenderModel build(AbstractContainerScreen<?> screen, List<InventoryTab> tabs, int scrollOffset) {
+        int configRevision = TabConfig.getRevision();
+
+        boolean[] active = new boolean[tabs.size()];
+        for (int i = 0; i < active.length; i++) {
+            active[i] = tabs.get(i).isActive();
+        }
+        TabStripGeometry geometry = TabStripGeometry.build(TabConfig.getTabPosition(),
+            screen.getGuiLeft(), screen.getGuiTop(), screen.getXSize(), screen.getYSize(), active, screen.width, scrollOffset);
+
+        // Icons and hover texts are only resolved for the tabs that got a slot
+        int count = geometry.getSlotCount();
+        ItemStack[] icons = new ItemStack[count];
+        Component[] hoverTexts = new Component[count];
+        for (int i = 0; i < count; i++) {
+            InventoryTab tab = tabs.get(geometry.getTabIndex(i));
+            icons[i] = tab.getTabIcon();
+            hoverTexts[i] = tab.getHoverText();
+        }
+        return new TabRenderModel(screen, configRevision, geometry, icons, hoverTexts);
+    }
+
+    /**
+     * Checks whether this snapshot still matches the screen geometry and config.
+     */
+    public boolean isValidFor(AbstractContainerScreen<?> screen, int currentConfigRevision) {
+        return configRevision == currentConfigRevision
+            && screenLeft == screen.getGuiLeft()
+            && screenTop == screen.getGuiTop()
+            && screenWidth == screen.getXSize()
+            && screenHeight == screen.getYSize()
+            && viewportWidth == screen.width;
+    }
+
+    /**
+     * Returns the index in the full tab list of the tab under the given point (full tab bounds), or -1.
+     */
+    public int hitTest(double mouseX, double mouseY) {
+        int slot = geometry.hitTest(mouseX, mouseY);
+        return slot == -1 ? -1 : geometry.getTabIndex(slot);
+    }
+
+    /**
+     * Returns the slot whose visible sprite is under the given point, or -1.
+     */
+    public int hoveredSlot(int mouseX, int mouseY) {
+        return geometry.hoveredSlot(mouseX, mouseY);
+    }
+
+    /**
+     * Returns {@link TabStripGeometry#ARROW_BACK} or {@link TabStripGeometry#ARROW_FORWARD} for the scroll arrow under the point, or -1.
+     */
+    public int arrowHitTest(double mouseX, double mouseY) {
+        return geometry.arrowHitTest(mouseX, mouseY);
+    }
+
+    public int getSlotCount() {
+        return geometry.getSlotCount();
+    }
+
+    public int getTabIndex(int slot) {
+        return geometry.getTabIndex(slot);
+    }
+
+    public int getScrollOffset() {
+        return geometry.getScrollOffset();
+    }
+
+    public int getMaxScroll() {
+        return geometry.getMaxScroll();
+    }
+
+    public boolean hasArrows() {
+        return geometry.hasArrows();
+    }
+
+    public int getArrowX(int arrow) {
+        return geometry.getArrowX(arrow);
+    }
+
+    public int getArrowY() {
+        return geometry.getArrowY();
+    }
+
+    public int getBoundsLeft() {
+        return geometry.getBoundsLeft();
+    }
+
+    public int getBoundsTop() {
+        return geometry.getBoundsTop();
+    }
+
+    public int getBoundsWidth() {
+        return geometry.getBoundsWidth();
+    }
+
+    public int getBoundsHeight() {
+        return geometry.getBoundsHeight();
+    }
+
+    public int getTabX(int index) {
+        return geometry.getTabX(index);
+    }
+
+    public int getTabY() {
+        return geometry.getTabY();
+    }
+
+    public int getRenderY(int index) {
+        return geometry.getRenderY(index);
+    }
+
+    public int getRenderHeight(int index) {
+        return geometry.getRenderHeight(index);
+    }
+
+    public int getSpriteU(int index) {
+        return geometry.getSpriteU(index);
+    }
+
+    public int getSpriteV(int index) {
+        return geometry.getSpriteV(index);
+    }
+
+    public ItemStack getIcon(int index) {
+        return icons[index];
+    }
+
+    /**
+     * Returns the baked model of a tab icon, resolved once per snapshot.
+     */
+    public BakedModel getIconModel(int index) {
+        BakedModel model = iconModels[index];
+        if (model == null) {
+            Minecraft minecraft = Minecraft.getInstance();
+            model = minecraft.getItemRenderer().getModel(icons[index], minecraft.level, minecraft.player, 0);
+            iconModels[index] = model;
+        }
+        return model;
+    }
+
+    public Component getHoverText(int index) {
+        return hoverTexts[index];
+    }
+}
@@ -1,33 +1,48 @@
 package com.yukami.backpacktab.client.gui;
 
 import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.jfr.TabClickEvent;
+import com.yukami.backpacktab.client.metrics.TabMetrics;
 import com.yukami.backpacktab.client.tabs.BackpackTab;
+import com.yukami.backpacktab.client.tabs.ContainerTab;
 import com.yukami.backpacktab.client.tabs.InventoryTab;
-import com.yukami.backpacktab.client.util.TabPositionCalculator;
-
-import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+import com.yukami.backpacktab.client.util.BackpackPreviewCache;
+import com.yukami.backpacktab.client.util.EquippedBackpackIndex;
+import com.yukami.backpacktab.core.layout.TabStripGeometry;
 
+import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.Font;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.multiplayer.MultiPlayerGameMode;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.profiling.ProfilerFiller;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
-import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.p3pp3rf1y.sophisticatedbackpacks.util.PlayerInventoryProvider;
+
+import java.util.List;
+import java.util.Optional;
 
 public class TabRenderer {
 
-    private static final ResourceLocation CREATIVE_INVENTORY_TABS = ResourceLocation.fromNamespaceAndPath("minecraft", "textures/gui/container/creative_inventory/tabs.png");
-    private static final int TAB_TEXTURE_WIDTH = 26;
-    private static final int TAB_TEXTURE_HEIGHT = 32;
+    static final int TAB_TEXTURE_WIDTH = TabStripGeometry.TAB_TEXTURE_WIDTH;
+    static final int TAB_TEXTURE_HEIGHT = TabStripGeometry.TAB_TEXTURE_HEIGHT;
+
+    // Tab dimensions are defined by the core geometry
+    public static final int TAB_WIDTH = TabStripGeometry.TAB_WIDTH;
+    public static final int TAB_HEIGHT = TabStripGeometry.TAB_HEIGHT;
+    public static final int TAB_SPACING = TabStripGeometry.TAB_SPACING;
 
-    // Define constants for tab dimensions
-    public static final int TAB_WIDTH = 28;
-    public static final int TAB_HEIGHT = 32;
-    public static final int TAB_SPACING = TAB_WIDTH - 2; // Keep current spacing
+    // Cached layout/icon snapshot shared by rendering and click handling
+    private static TabRenderModel renderModel = null;
+    // Index of the first tab shown when the strip doesn't fit on screen
+    private static int scrollOffset = 0;
+    // Contents preview prepared for the hovered tab, reused while the same slot of the same model stays hovered
+    private static TabRenderModel previewModel = null;
+    private static int previewSlot = -1;
+    private static BackpackPreviewTooltip preview = null;
 
     /**
      * Renders all tabs with height clipping for inactive tabs
@@ -35,150 +50,286 @@ public class TabRenderer {
     public static void renderTabs(GuiGraphics guiGraphics, AbstractContainerScreen<?> screen, int mouseX, int mouseY) {
         if (screen == null) return;
         
+        ProfilerFiller profiler = Minecraft.getInstance().getProfiler();
+        profiler.push("backpackTabRender");
+        long startNanos = TabMetrics.startTimer();
+        try {
+            renderTabsInternal(guiGraphics, screen, mouseX, mouseY);
+        } finally {
+            TabMetrics.stopTimer(TabMetrics.RENDER_TABS, startNanos);
+            profiler.pop();
+        }
+    }
+
+    private static void renderTabsInternal(GuiGraphics guiGraphics, AbstractContainerScreen<?> screen, int mouseX, int mouseY) {
         Player player = Minecraft.getInstance().player;
         if (player == null) return;
 
         // If there's a stored block and it's no longer valid, don't render any tabs
-        if (InventoryTabManager.getStoredBlockPos() != null && !InventoryTabManager.isBlockStillValid(InventoryTabManager.getStoredBlockPos())) {
+        if (InventoryTabManager.getStoredBlockPos() != null && !ContainerValidityTracker.isValid()) {
             return;
         }
         
-        java.util.List<InventoryTab> activeTabs = InventoryTabManager.getActiveTabs();
-        if (activeTabs.isEmpty()) {
+        TabRenderModel model = getRenderModel(screen);
+        if (model == null) {
             return;
         }
         
-        TabConfig.TabPosition position = TabConfig.getTabPosition();
-        
-        int screenLeft = screen.getGuiLeft();
-        int screenTop = screen.getGuiTop();
-        int screenWidth = screen.getXSize();
-        int screenHeight = screen.getYSize();
+        int itemPadding = Math.max(0, (TAB_WIDTH - 16) / 2);
+        int itemXOffset = itemPadding - 1;
+        int itemYOffset = itemPadding + 1; // Adjusted to center the icon
+        ResourceLocation texture = TabAtlas.getTexture();
+        if (TabConfig.isCacheTabStrip()) {
+            TabStripCache.draw(guiGraphics, model, texture, graphics -> drawStrip(graphics, model, texture, itemXOffset, itemYOffset));
+        } else {
+            TabStripCache.release();
+            drawStrip(guiGraphics, model, texture, itemXOffset, itemYOffset);
+        }
         
-        TabPositionCalculator.TabLayout layout = TabPositionCalculator.calculateLayout(
-            position, screenLeft, screenTop, screenWidth, screenHeight, TAB_WIDTH, TAB_HEIGHT
-        );
+        for (int i = 0; i < model.getSlotCount(); i++) {
+            if (TabTransition.isPendingTab(model.getTabIndex(i))) {
+                renderPendingIndicator(guiGraphics, model.getTabX(i), model.getRenderY(i), model.getRenderHeight(i));
+            }
+        }
+        if (model.hasArrows()) {
+            renderArrow(guiGraphics, model, TabStripGeometry.ARROW_BACK, "<", model.getScrollOffset() > 0);
+            renderArrow(guiGraphics, model, TabStripGeometry.ARROW_FORWARD, ">", model.getScrollOffset() < model.getMaxScroll());
+        }
         
-        for (int i = 0; i < activeTabs.size(); i++) {
-            InventoryTab tab = activeTabs.get(i);
-            int tabX = layout.getTabX(i, TAB_SPACING);
-            boolean active = tab.isActive();
-            boolean isFirstTab = (i == 0);
-            
-            
-            renderTab(guiGraphics, tab.getTabIcon(), tab.getHoverText(), 
-                     tabX, layout.startY, TAB_WIDTH, TAB_HEIGHT, mouseX, mouseY, active, position, isFirstTab);
+        // At most one tab can be hovered, so the tooltip is drawn once after all tabs
+        int hovered = model.hoveredSlot(mouseX, mouseY);
+        if (hovered != -1) {
+            BackpackPreviewTooltip preview = getPreview(model, hovered);
+            if (preview != null) {
+                guiGraphics.renderTooltip(Minecraft.getInstance().font, List.of(model.getHoverText(hovered)), Optional.of(preview), mouseX, mouseY);
+            } else {
+                guiGraphics.renderTooltip(Minecraft.getInstance().font, model.getHoverText(hovered), mouseX, mouseY);
+            }
         }
     }
 
     /**
-     * Renders a single tab with the given parameters
+     * Returns the contents preview for a hovered backpack tab, preparing it only when the hover target changes.
      */
-    private static void renderTab(GuiGraphics guiGraphics, ItemStack icon, net.minecraft.network.chat.Component hoverText, 
-                                 int x, int y, int width, int height, double mouseX, double mouseY, 
-                                 boolean active, TabConfig.TabPosition position, boolean isFirstTab) {
-        
-        TabConfig.SpriteCoords coords = TabConfig.getSpriteCoords(position, active, isFirstTab);
-        
-        int renderHeight = TAB_TEXTURE_HEIGHT;
-        int yOffset = 0;
-        int vOffset = 0;
-
-        if (!active) {
-            if (position == TabConfig.TabPosition.TOP_LEFT || position == TabConfig.TabPosition.TOP_RIGHT) {
-                renderHeight = 28;
-            } else if (position == TabConfig.TabPosition.BOTTOM_LEFT || position == TabConfig.TabPosition.BOTTOM_RIGHT) {
-                renderHeight = 28;
-                yOffset = 4;
-                vOffset = 4;
+    private static BackpackPreviewTooltip getPreview(TabRenderModel model, int slot) {
+        if (model != previewModel || slot != previewSlot) {
+            previewModel = model;
+            previewSlot = slot;
+            preview = null;
+            List<InventoryTab> activeTabs = InventoryTabManager.getActiveTabs();
+            int tabIndex = model.getTabIndex(slot);
+            if (TabConfig.getBackpackPreviewCacheSize() > 0 && tabIndex < activeTabs.size()
+                    && activeTabs.get(tabIndex) instanceof BackpackTab backpackTab) {
+                preview = BackpackPreviewTooltip.of(BackpackPreviewCache.get(backpackTab.getStorageUuid()));
             }
         }
+        return preview;
+    }
 
-        guiGraphics.blit(CREATIVE_INVENTORY_TABS, x, y + yOffset, coords.u, coords.v + vOffset, TAB_TEXTURE_WIDTH, renderHeight);
+    /**
+     * Draws the tab backgrounds and icons
+     */
+    private static void drawStrip(GuiGraphics guiGraphics, TabRenderModel model, ResourceLocation texture, int itemXOffset, int itemYOffset) {
+        if (TabConfig.isBatchedRendering()) {
+            // Backgrounds, then icons, then overlays, so texture and lighting state change a fixed number of times
+            TabBatchRenderer.drawBackgrounds(guiGraphics, texture, model);
+            TabBatchRenderer.drawIcons(guiGraphics, model, itemXOffset, itemYOffset);
+        } else {
+            for (int i = 0; i < model.getSlotCount(); i++) {
+                int tabX = model.getTabX(i);
+                guiGraphics.blit(texture, tabX, model.getRenderY(i), model.getSpriteU(i), model.getSpriteV(i), 
+                        TAB_TEXTURE_WIDTH, model.getRenderHeight(i));
+                guiGraphics.renderItem(model.getIcon(i), tabX + itemXOffset, model.getTabY() + itemYOffset);
+            }
+        }
+    }
+
+    /**
+     * Draws a scroll arrow button, greyed out when there is nothing to scroll to in its direction
+     */
+    private static void renderArrow(GuiGraphics guiGraphics, TabRenderModel model, int arrow, String label, boolean enabled) {
+        int x = model.getArrowX(arrow);
+        int y = model.getArrowY();
+        guiGraphics.fill(x, y, x + TabStripGeometry.ARROW_WIDTH, y + TabStripGeometry.ARROW_HEIGHT, 0xA0000000);
+        Font font = Minecraft.getInstance().font;
+        guiGraphics.drawString(font, label, x + (TabStripGeometry.ARROW_WIDTH - font.width(label) + 1) / 2,
+                y + (TabStripGeometry.ARROW_HEIGHT - font.lineHeight) / 2 + 1, enabled ? 0xFFFFFF : 0x606060, false);
+    }
 
-        int itemPadding = Math.max(0, (width - 16) / 2);
-        int itemX = x + itemPadding - 1;
-        int itemY = y + itemPadding + 1; // Adjusted to center the icon
-        guiGraphics.renderItem(icon, itemX, itemY);
+    /**
+     * Draws a pulsing highlight over a tab whose screen is still being opened by the server
+     */
+    private static void renderPendingIndicator(GuiGraphics guiGraphics, int x, int y, int height) {
+        int alpha = 0x30 + (int) (0x50 * (0.5 + 0.5 * Math.sin(Util.getMillis() / 120.0)));
+        guiGraphics.pose().pushPose();
+        guiGraphics.pose().translate(0, 0, 300); // Above the item icon
+        guiGraphics.fill(x + 3, y + 3, x + TAB_TEXTURE_WIDTH - 3, y + height - 3, (alpha << 24) | 0xFFFFFF);
+        guiGraphics.pose().popPose();
+    }
 
-        if (mouseX >= x && mouseX < x + width && mouseY >= y + yOffset && mouseY < y + yOffset + renderHeight) {
-            guiGraphics.renderTooltip(Minecraft.getInstance().font, hoverText, (int) mouseX, (int) mouseY);
+    /**
+     * Returns the render model for the screen, rebuilding it only if the tab list, screen geometry
+     * or config changed since it was built. Returns null when there are no tabs.
+     */
+    private static TabRenderModel getRenderModel(AbstractContainerScreen<?> screen) {
+        java.util.List<InventoryTab> activeTabs = InventoryTabManager.getActiveTabs();
+        if (activeTabs.isEmpty()) {
+            return null;
+        }
+        
+        TabRenderModel model = renderModel;
+        if (model == null || !model.isValidFor(screen, TabConfig.getRevision())) {
+            model = TabRenderModel.build(screen, activeTabs, scrollOffset);
+            renderModel = model;
         }
+        return model;
     }
 
     /**
-     * Handles tab click detection and opening
+     * Returns the render model if the strip is shown and accepts input, otherwise null.
      */
-    public static boolean handleTabClick(double mouseX, double mouseY, int button, AbstractContainerScreen<?> currentScreen) {
-        if (currentScreen == null || button != 0) return false;
+    private static TabRenderModel getInteractiveModel(AbstractContainerScreen<?> screen) {
+        if (screen == null || Minecraft.getInstance().player == null) return null;
         
-        Player player = Minecraft.getInstance().player;
-        if (player == null) return false;
+        // If there's a stored block and it's no longer valid, don't allow any tab input
+        if (InventoryTabManager.getStoredBlockPos() != null && !ContainerValidityTracker.isValid()) {
+            return null;
+        }
+        return getRenderModel(screen);
+    }
+
+    /**
+     * Moves the visible window of tabs by the given number of tabs.
+     * @return True if the window moved.
+     */
+    private static boolean scroll(TabRenderModel model, int delta) {
+        int newOffset = Math.max(0, Math.min(model.getScrollOffset() + delta, model.getMaxScroll()));
+        if (newOffset == model.getScrollOffset()) {
+            return false;
+        }
+        scrollOffset = newOffset;
+        invalidateRenderModel();
+        return true;
+    }
 
-        // If there's a stored block and it's no longer valid, don't allow any tab clicks
-        if (InventoryTabManager.getStoredBlockPos() != null && !InventoryTabManager.isBlockStillValid(InventoryTabManager.getStoredBlockPos())) {
+    /**
+     * Handles clicks on the scroll arrows. Arrow clicks are consumed even at the end of the strip.
+     */
+    public static boolean handleArrowClick(double mouseX, double mouseY, int button, AbstractContainerScreen<?> screen) {
+        if (button != 0) return false;
+        TabRenderModel model = getInteractiveModel(screen);
+        if (model == null) return false;
+        
+        int arrow = model.arrowHitTest(mouseX, mouseY);
+        if (arrow == -1) {
             return false;
         }
+        scroll(model, arrow == TabStripGeometry.ARROW_BACK ? -1 : 1);
+        return true;
+    }
+
+    /**
+     * Scrolls the strip when the mouse wheel is used over the tabs or arrows.
+     */
+    public static boolean handleScroll(double mouseX, double mouseY, double delta, AbstractContainerScreen<?> screen) {
+        TabRenderModel model = getInteractiveModel(screen);
+        if (model == null || !model.hasArrows() || delta == 0) return false;
         
+        if (model.hitTest(mouseX, mouseY) == -1 && model.arrowHitTest(mouseX, mouseY) == -1) {
+            return false;
+        }
+        scroll(model, delta > 0 ? -1 : 1); // Wheel up goes back towards the first tab
+        return true;
+    }
+
+    /**
+     * Scrolls back to the start of the strip, for the next screen opened from scratch.
+     */
+    public static void resetScroll() {
+        scrollOffset = 0;
+    }
+
+    /**
+     * Drops the cached render model so the next frame rebuilds it from the current tab list.
+     */
+    public static void invalidateRenderModel() {
+        renderModel = null;
+        previewModel = null;
+        preview = null;
+    }
+
+    /**
+     * Returns the index in the tab list of the tab a click lands on, or -1.
+     */
+    public static int getClickedTab(double mouseX, double mouseY, int button, AbstractContainerScreen<?> currentScreen) {
+        if (button != 0) return -1;
+        
+        TabRenderModel model = getInteractiveModel(currentScreen);
+        return model != null ? model.hitTest(mouseX, mouseY) : -1;
+    }
+
+    /**
+     * Opens the tab at the given index of the tab list. Shared by clicks and tab key mappings.
+     * @return True if the input was consumed.
+     */
+    public static boolean openTab(int clicked, AbstractContainerScreen<?> currentScreen) {
         java.util.List<InventoryTab> activeTabs = InventoryTabManager.getActiveTabs();
-        if (activeTabs.isEmpty()) {
+        Player player = Minecraft.getInstance().player;
+        if (player == null || clicked < 0 || clicked >= activeTabs.size()) {
             return false;
         }
+        TabMetrics.increment(TabMetrics.TAB_CLICKS);
+        TabClickEvent clickEvent = new TabClickEvent();
+        clickEvent.begin();
         
-        TabConfig.TabPosition position = TabConfig.getTabPosition();
+        InventoryTab tab = activeTabs.get(clicked);
+        if (!tab.canOpen()) {
+            InventoryTabManager.onTabUnavailable(); // Consume the click, the tab disappears on rebuild
+            return true;
+        }
+        InventoryTabManager.onSwitchStarted(tab); // Before open() so instant screens land on this switch
+        if (tab instanceof ContainerTab containerTab) {
+            InventoryTabManager.setStoredBlockPos(containerTab.getContainerPos()); // The clicked container becomes the base tab
+        }
         
-        int screenLeft = currentScreen.getGuiLeft();
-        int screenTop = currentScreen.getGuiTop();
-        int screenWidth = currentScreen.getXSize();
-        int screenHeight = currentScreen.getYSize();
+        // Set all tabs to inactive, then set clicked tab to active
+        for (int j = 0; j < activeTabs.size(); j++) {
+            activeTabs.get(j).setActive(j == clicked);
+        }
+        invalidateRenderModel(); // Sprites depend on the active state
         
-        TabPositionCalculator.TabLayout layout = TabPositionCalculator.calculateLayout(
-            position, screenLeft, screenTop, screenWidth, screenHeight, TAB_WIDTH, TAB_HEIGHT
-        );
+        Level world = player.level();
+        AbstractContainerMenu handler = player.containerMenu;
+        MultiPlayerGameMode gameMode = Minecraft.getInstance().gameMode;
         
-        for (int i = 0; i < activeTabs.size(); i++) {
-            InventoryTab tab = activeTabs.get(i);
-            int tabX = layout.getTabX(i, TAB_SPACING);
-            
-            if (mouseX >= tabX && mouseX <= tabX + TAB_WIDTH && mouseY >= layout.startY && mouseY <= layout.startY + TAB_HEIGHT) {
-                // Set all tabs to inactive, then set clicked tab to active
-                for (int j = 0; j < activeTabs.size(); j++) {
-                    InventoryTab allTab = activeTabs.get(j);
-                    boolean newActive = (j == i);
-                    allTab.setActive(newActive);
-                }
-                
-                Level world = player.level();
-                AbstractContainerMenu handler = player.containerMenu;
-                MultiPlayerGameMode gameMode = Minecraft.getInstance().gameMode;
-                
-                tab.open(player, world, handler, gameMode);
-                return true;
-            }
+        TabTransition.begin(currentScreen, clicked, tab); // Before open() so instant screens are measured too
+        ProfilerFiller profiler = Minecraft.getInstance().getProfiler();
+        profiler.push("backpackTabOpen");
+        boolean sent;
+        try {
+            sent = tab.open(player, world, handler, gameMode);
+        } finally {
+            profiler.pop();
         }
-        
-        return false;
+        if (!sent) {
+            // No screen is coming, so end the switch right away
+            InventoryTabManager.onSwitchNotSent();
+            return true;
+        }
+        clickEvent.commitWith(tab.getClass().getSimpleName(), handler != null ? handler.containerId : -1,
+                tab instanceof ContainerTab containerTab ? containerTab.getContainerPos() : null);
+        return true;
     }
 
     /**
-     * Gets the currently equipped backpack tab using Sophisticated Backpacks' PlayerInventoryProvider
+     * Gets one tab per equipped backpack from the client-side equipped backpack index
      */
-    public static BackpackTab getEquippedBackpackTab(Player player) {
-        try {
-            BackpackTab[] foundTab = {null};
-            
-            PlayerInventoryProvider.get().runOnBackpacks(player, (backpack, inventoryName, identifier, slot) -> {
-                if ("main".equals(inventoryName)) {
-                    return false;
-                }
-                foundTab[0] = new BackpackTab(backpack);
-                return true;
-            });
-            
-            return foundTab[0];
-        } catch (Exception e) {
-            LOGGER.error("Error getting equipped backpack tab: {}", e.getMessage());
-        }
-        return null;
+    public static java.util.List<BackpackTab> getEquippedBackpackTabs(Player player) {
+        java.util.List<EquippedBackpackIndex.Entry> equipped = EquippedBackpackIndex.getEntries(player);
+        java.util.List<BackpackTab> tabs = new java.util.ArrayList<>(equipped.size());
+        for (EquippedBackpackIndex.Entry entry : equipped) {
+            tabs.add(new BackpackTab(entry));
+        }
+        return tabs;
     }
 }
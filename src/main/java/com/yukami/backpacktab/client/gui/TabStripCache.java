@@ -0,0 +1,137 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.mojang.blaze3d.pipeline.RenderTarget;
+import com.mojang.blaze3d.pipeline.TextureTarget;
+import com.mojang.blaze3d.platform.Window;
+import com.mojang.blaze3d.systems.RenderSystem;
+import com.mojang.blaze3d.vertex.BufferBuilder;
+import com.mojang.blaze3d.vertex.BufferUploader;
+import com.mojang.blaze3d.vertex.DefaultVertexFormat;
+import com.mojang.blaze3d.vertex.Tesselator;
+import com.mojang.blaze3d.vertex.VertexFormat;
+import com.mojang.blaze3d.vertex.VertexSorting;
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+
+import net.minecraft.Util;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.renderer.GameRenderer;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.client.ForgeHooksClient;
+import org.joml.Matrix4f;
+
+import java.util.function.Consumer;
+
+/**
+ * Offscreen copy of the tab strip (backgrounds and icons). The strip is rendered into a texture
+ * target when its render model, the atlas or the window/GUI scale changes, and otherwise drawn as
+ * one textured quad per frame. Tooltips and the pending-switch pulse are drawn live on top, so mouse
+ * hover doesn't invalidate the cache. Animated icons (e.g. enchantment glint) only move when
+ * tabStripCacheRefreshMillis allows periodic redraws. Must only be used on the render thread.
+ */
+public class TabStripCache {
+    private static RenderTarget target = null;
+
+    // What the cached image was drawn from
+    private static TabRenderModel cachedModel = null;
+    private static ResourceLocation cachedTexture = null;
+    private static double cachedGuiScale = 0;
+    private static long drawnAtMillis = 0;
+
+    /**
+     * Draws the strip from the cache, redrawing the cache first if it is stale.
+     * @param painter Draws the strip backgrounds and icons in GUI coordinates.
+     */
+    public static void draw(GuiGraphics guiGraphics, TabRenderModel model, ResourceLocation texture, Consumer<GuiGraphics> painter) {
+        Window window = Minecraft.getInstance().getWindow();
+        int width = model.getBoundsWidth();
+        int height = model.getBoundsHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+
+        double guiScale = window.getGuiScale();
+        int refreshMillis = TabConfig.getTabStripCacheRefreshMillis();
+        long now = Util.getMillis();
+        boolean stale = target == null
+                || model != cachedModel
+                || texture != cachedTexture
+                || guiScale != cachedGuiScale
+                || (refreshMillis > 0 && now - drawnAtMillis >= refreshMillis);
+        // Flush first: the redraw shares the buffer source, so pending GUI batches would otherwise land in
+        // the cache texture. It also keeps them below the strip on screen.
+        guiGraphics.flush();
+        if (stale) {
+            redraw(model, texture, guiScale, painter);
+            drawnAtMillis = now;
+        }
+
+        blit(guiGraphics, model.getBoundsLeft(), model.getBoundsTop(), width, height);
+    }
+
+    /**
+     * Frees the texture target. The next draw recreates it.
+     */
+    public static void release() {
+        if (target != null) {
+            target.destroyBuffers();
+            target = null;
+        }
+        cachedModel = null;
+        cachedTexture = null;
+    }
+
+    private static void redraw(TabRenderModel model, ResourceLocation texture, double guiScale, Consumer<GuiGraphics> painter) {
+        Minecraft minecraft = Minecraft.getInstance();
+        int left = model.getBoundsLeft();
+        int top = model.getBoundsTop();
+        int pixelWidth = (int) Math.ceil(model.getBoundsWidth() * guiScale);
+        int pixelHeight = (int) Math.ceil(model.getBoundsHeight() * guiScale);
+
+        if (target == null) {
+            target = new TextureTarget(pixelWidth, pixelHeight, true, Minecraft.ON_OSX);
+        } else if (target.width != pixelWidth || target.height != pixelHeight) {
+            target.resize(pixelWidth, pixelHeight, Minecraft.ON_OSX);
+        }
+        target.setClearColor(0.0F, 0.0F, 0.0F, 0.0F);
+        target.clear(Minecraft.ON_OSX);
+        target.bindWrite(true);
+
+        // Map the strip's GUI rectangle onto the whole target, with the same depth range as the GUI
+        Matrix4f previousProjection = RenderSystem.getProjectionMatrix();
+        VertexSorting previousSorting = RenderSystem.getVertexSorting();
+        RenderSystem.setProjectionMatrix(new Matrix4f().setOrtho(left, left + model.getBoundsWidth(),
+                top + model.getBoundsHeight(), top, 1000.0F, ForgeHooksClient.getGuiFarPlane()), VertexSorting.ORTHOGRAPHIC_Z);
+        try {
+            GuiGraphics offscreen = new GuiGraphics(minecraft, minecraft.renderBuffers().bufferSource());
+            painter.accept(offscreen);
+            offscreen.flush();
+        } finally {
+            RenderSystem.setProjectionMatrix(previousProjection, previousSorting);
+            minecraft.getMainRenderTarget().bindWrite(true);
+        }
+
+        cachedModel = model;
+        cachedTexture = texture;
+        cachedGuiScale = guiScale;
+        TabMetrics.increment(TabMetrics.STRIP_REDRAWS);
+    }
+
+    private static void blit(GuiGraphics guiGraphics, int x, int y, int width, int height) {
+        RenderSystem.setShaderTexture(0, target.getColorTextureId());
+        RenderSystem.setShader(GameRenderer::getPositionTexShader);
+        RenderSystem.enableBlend();
+        RenderSystem.defaultBlendFunc();
+        Matrix4f matrix = guiGraphics.pose().last().pose();
+        BufferBuilder buffer = Tesselator.getInstance().getBuilder();
+        buffer.begin(VertexFormat.Mode.QUADS, DefaultVertexFormat.POSITION_TEX);
+        // Framebuffer rows start at the bottom, so v is flipped
+        buffer.vertex(matrix, x, y, 0.0F).uv(0.0F, 1.0F).endVertex();
+        buffer.vertex(matrix, x, y + height, 0.0F).uv(0.0F, 0.0F).endVertex();
+        buffer.vertex(matrix, x + width, y + height, 0.0F).uv(1.0F, 0.0F).endVertex();
+        buffer.vertex(matrix, x + width, y, 0.0F).uv(1.0F, 1.0F).endVertex();
+        BufferUploader.drawWithShader(buffer.end());
+        RenderSystem.disableBlend();
+    }
+}
@@ -0,0 +1,161 @@
+package com.yukami.backpacktab.client.gui;
+
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.tabs.InventoryTab;
+
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
+import net.minecraft.world.inventory.InventoryMenu;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tracks a tab switch from the click until the target screen is initialized.
+ * While a switch is pending the old screen keeps rendering with a pending indicator on the clicked tab,
+ * and input to the old menu is blocked (when optimistic transitions are enabled). Listeners receive
+ * click-to-screen latency and the number of slow frames seen while waiting.
+ */
+public class TabTransition {
+
+    /**
+     * Receives the outcome of every tab switch.
+     */
+    public interface Listener {
+        /**
+         * @param tabType Simple class name of the clicked tab.
+         * @param latencyNanos Time from the click to the target screen's init (or to the timeout).
+         * @param droppedFrames Frames slower than 30 FPS rendered while the switch was pending.
+         * @param completed False if the switch timed out or was abandoned.
+         */
+        void onTransitionFinished(String tabType, long latencyNanos, int droppedFrames, boolean completed);
+    }
+
+    static final long TIMEOUT_NANOS = 3_000_000_000L;
+    private static final long SLOW_FRAME_NANOS = 1_000_000_000L / 30;
+
+    private static final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
+    private static boolean pending = false;
+    private static AbstractContainerScreen<?> sourceScreen = null;
+    private static int pendingTabIndex = -1;
+    private static String pendingTabType = null;
+    private static boolean sourceMenuClosed = false; // The switch closes the old menu on the server without saying so
+    private static String lastTabType = null; // Kept after the switch finishes, for events fired after screen init
+    private static long startNanos = 0;
+    private static long lastFrameNanos = 0;
+    private static int droppedFrames = 0;
+
+    public static void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public static void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Starts tracking a switch. Must be called before the tab's open() so instant screens are measured too.
+     */
+    public static void begin(AbstractContainerScreen<?> source, int tabIndex, InventoryTab tab) {
+        if (pending) {
+            finish(false);
+        }
+        pending = true;
+        sourceScreen = source;
+        pendingTabIndex = tabIndex;
+        pendingTabType = tab.getClass().getSimpleName();
+        // The vanilla routes close the old menu up front; only the player inventory menu survives them.
+        // The server half answers every switch, so a timeout there only means a slow server
+        sourceMenuClosed = !tab.isInstant() && !tab.usesServerSwitch() && !(source.getMenu() instanceof InventoryMenu);
+        lastTabType = pendingTabType;
+        startNanos = System.nanoTime();
+        lastFrameNanos = startNanos;
+        droppedFrames = 0;
+    }
+
+    /**
+     * Called when a container screen finishes init. Completes the pending switch if it's the new screen.
+     */
+    public static void onScreenInit(AbstractContainerScreen<?> screen) {
+        if (pending && screen != sourceScreen) {
+            finish(true);
+        }
+    }
+
+    /**
+     * Called once per rendered frame of a managed screen while a switch may be pending.
+     */
+    public static void onFrame() {
+        if (!pending) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (now - lastFrameNanos > SLOW_FRAME_NANOS) {
+            droppedFrames++;
+        }
+        lastFrameNanos = now;
+        if (now - startNanos > TIMEOUT_NANOS) {
+            // The server never answered. The old screen is only given back if its menu is still open on the
+            // server; otherwise every click would use a dead container id, so it is closed instead
+            AbstractContainerScreen<?> source = sourceScreen;
+            boolean closeSource = sourceMenuClosed;
+            finish(false);
+            InventoryTabManager.onSwitchTimedOut(source, closeSource);
+        }
+    }
+
+    /**
+     * Abandons the pending switch, e.g. when the player closes the screen.
+     */
+    public static void cancel() {
+        if (pending) {
+            finish(false);
+        }
+    }
+
+    /**
+     * Returns the simple class name of the most recently clicked tab, or null if none was clicked yet.
+     */
+    public static String getLastTabType() {
+        return lastTabType;
+    }
+
+    public static boolean isPending() {
+        return pending;
+    }
+
+    /**
+     * Returns true if the given tab index should show the pending indicator.
+     */
+    public static boolean isPendingTab(int tabIndex) {
+        return pending && isOptimistic() && tabIndex == pendingTabIndex;
+    }
+
+    /**
+     * Returns true if input to the given screen should be swallowed because its menu is being replaced.
+     */
+    public static boolean shouldBlockInput(Screen screen) {
+        return pending && isOptimistic() && screen == sourceScreen;
+    }
+
+    public static boolean isOptimistic() {
+        return TabConfig.isOptimisticTransitions();
+    }
+
+    private static void finish(boolean completed) {
+        long latency = System.nanoTime() - startNanos;
+        String tabType = pendingTabType;
+        int frames = droppedFrames;
+
+        pending = false;
+        sourceScreen = null;
+        pendingTabIndex = -1;
+        pendingTabType = null;
+        sourceMenuClosed = false;
+
+        for (Listener listener : listeners) {
+            listener.onTransitionFinished(tabType, latency, frames, completed);
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yukamibackpacktab.OpenPacket")
+@Label("Open Packet Send")
+@Description("Packets sent by a tab to open its container")
+public class OpenPacketEvent extends TabLifecycleEvent {
+    @Label("Route")
+    @Description("switch for the single server packet, vanilla for the close/interact sequence")
+    public String route;
+}
@@ -0,0 +1,17 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yukamibackpacktab.ScreenClose")
+@Label("Tab Screen Close")
+@Description("A managed container screen closing")
+public class ScreenCloseEvent extends TabLifecycleEvent {
+    @Label("Screen")
+    public String screen;
+
+    @Label("Tab Switch")
+    @Description("True if the screen closed because a tab was opened")
+    public boolean tabSwitch;
+}
@@ -0,0 +1,17 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yukamibackpacktab.ScreenInit")
+@Label("Tab Screen Init")
+@Description("Tab strip setup when a container screen initializes")
+public class ScreenInitEvent extends TabLifecycleEvent {
+    @Label("Screen")
+    public String screen;
+
+    @Label("Switch Sequence")
+    @Description("Sequence number of the tab switch this screen completed, 0 if none, -1 if stale")
+    public int switchSequence;
+}
@@ -0,0 +1,13 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yukamibackpacktab.Stash")
+@Label("Carried Item Stash")
+@Description("Click that parks the cursor stack before a container switch")
+public class StashEvent extends TabLifecycleEvent {
+    @Label("Slot")
+    public int slot = -1;
+}
@@ -0,0 +1,11 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yukamibackpacktab.TabClick")
+@Label("Tab Click")
+@Description("Tab click handling, from the hit test until the tab has sent its open packets")
+public class TabClickEvent extends TabLifecycleEvent {
+}
@@ -0,0 +1,44 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+import net.minecraft.core.BlockPos;
+
+/**
+ * Common fields of the tab switching JFR events. Callers create the event, call {@link #begin()} where
+ * a duration is wanted, then {@link #commitWith}. When no recording has the event enabled,
+ * {@link #shouldCommit()} is false and none of the fields are filled in.
+ */
+@Category({"Yukami Backpack Tab"})
+@StackTrace(false)
+public abstract class TabLifecycleEvent extends Event {
+    @Label("Tab Type")
+    String tabType;
+
+    @Label("Container Id")
+    int containerId;
+
+    @Label("Block Position")
+    String blockPos;
+
+    /**
+     * Ends the event and commits it with the given fields, if a recording wants it.
+     * @param tabType Simple class name of the tab involved, or null if unknown.
+     * @param containerId Id of the menu involved, or -1.
+     * @param pos Container block position, or null for backpacks and the player inventory.
+     * @return True if the event was committed.
+     */
+    public boolean commitWith(String tabType, int containerId, BlockPos pos) {
+        end();
+        if (!shouldCommit()) {
+            return false;
+        }
+        this.tabType = tabType;
+        this.containerId = containerId;
+        this.blockPos = pos != null ? pos.toShortString() : null;
+        commit();
+        return true;
+    }
+}
@@ -0,0 +1,13 @@
+package com.yukami.backpacktab.client.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("yukamibackpacktab.Unstash")
+@Label("Carried Item Unstash")
+@Description("Click that puts the stashed stack back on the cursor after a switch")
+public class UnstashEvent extends TabLifecycleEvent {
+    @Label("Slot")
+    public int slot = -1;
+}
@@ -0,0 +1,33 @@
+package com.yukami.backpacktab.client.metrics;
+
+/**
+ * Monotonic event counter. Only updated from the client thread.
+ */
+public class Counter {
+    private final String name;
+    private long count = 0;
+
+    Counter(String name) {
+        this.name = name;
+    }
+
+    public void increment() {
+        count++;
+    }
+
+    public void add(long amount) {
+        count += amount;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    void reset() {
+        count = 0;
+    }
+}
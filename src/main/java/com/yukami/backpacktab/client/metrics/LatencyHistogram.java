@@ -0,0 +1,74 @@
+package com.yukami.backpacktab.client.metrics;
+
+/**
+ * Fixed-size latency histogram with power-of-two nanosecond buckets. Recording is a couple of
+ * arithmetic operations and never allocates; percentiles are reported as the upper bound of the
+ * bucket they fall in, so they are accurate to within a factor of two.
+ */
+public class LatencyHistogram {
+    private static final int BUCKETS = 64;
+
+    private final String name;
+    private final long[] buckets = new long[BUCKETS]; // Bucket i holds samples in [2^i, 2^(i+1)) ns
+    private long count = 0;
+    private long totalNanos = 0;
+    private long maxNanos = 0;
+
+    LatencyHistogram(String name) {
+        this.name = name;
+    }
+
+    public void record(long nanos) {
+        long value = Math.max(1, nanos);
+        buckets[63 - Long.numberOfLeadingZeros(value)]++;
+        count++;
+        totalNanos += value;
+        if (value > maxNanos) {
+            maxNanos = value;
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMaxNanos() {
+        return maxNanos;
+    }
+
+    public double getMeanNanos() {
+        return count == 0 ? 0.0 : (double) totalNanos / count;
+    }
+
+    /**
+     * Estimates the given percentile.
+     * @param percentile Between 0 and 100.
+     * @return The upper bound of the bucket containing the percentile, capped at the maximum, or 0 if empty.
+     */
+    public long getPercentileNanos(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(count * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i];
+            if (seen >= rank && seen > 0) {
+                long upperBound = i >= 62 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+                return Math.min(upperBound, maxNanos);
+            }
+        }
+        return maxNanos;
+    }
+
+    void reset() {
+        java.util.Arrays.fill(buckets, 0);
+        count = 0;
+        totalNanos = 0;
+        maxNanos = 0;
+    }
+}
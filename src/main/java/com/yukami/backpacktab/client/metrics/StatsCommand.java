@@ -0,0 +1,45 @@
+package com.yukami.backpacktab.client.metrics;
+
+import com.mojang.brigadier.context.CommandContext;
+
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Client command that prints the tab metrics: {@code /backpacktab stats} and {@code /backpacktab stats reset}.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class StatsCommand {
+
+    @SubscribeEvent
+    public static void onRegisterClientCommands(RegisterClientCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("backpacktab")
+            .then(Commands.literal("stats")
+                .executes(StatsCommand::printStats)
+                .then(Commands.literal("reset")
+                    .executes(StatsCommand::resetStats))));
+    }
+
+    private static int printStats(CommandContext<CommandSourceStack> context) {
+        CommandSourceStack source = context.getSource();
+        if (!TabMetrics.isEnabled()) {
+            source.sendSuccess(() -> Component.literal("Backpack tab metrics are disabled (metricsEnabled in the client config)"), false);
+            return 0;
+        }
+        for (String line : TabMetrics.describe()) {
+            source.sendSuccess(() -> Component.literal(line), false);
+        }
+        return 1;
+    }
+
+    private static int resetStats(CommandContext<CommandSourceStack> context) {
+        TabMetrics.reset();
+        context.getSource().sendSuccess(() -> Component.literal("Backpack tab metrics reset"), false);
+        return 1;
+    }
+}
@@ -0,0 +1,218 @@
+package com.yukami.backpacktab.client.metrics;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import com.yukami.backpacktab.YukamiBackpackTab;
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.gui.TabTransition;
+
+import net.minecraft.Util;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Registry of counters and latency histograms for tab operations. Everything is a no-op unless
+ * metricsEnabled is set: timers return 0 without reading the clock and counters are not touched.
+ * Metrics are only updated from the client thread.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class TabMetrics {
+    private static final String CSV_HEADER = "timestamp_ms,metric,type,count,value,mean_us,p50_us,p99_us,max_us";
+
+    private static final Map<String, Counter> counters = new LinkedHashMap<>();
+    private static final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+
+    public static final Counter TAB_CLICKS = counter("tab.clicks");
+    public static final Counter STASH_CLICKS = counter("stash.clicks");
+    public static final Counter UNSTASH_CLICKS = counter("unstash.clicks");
+    public static final Counter VALIDITY_CHECKS = counter("validity.checks");
+    public static final Counter INDEX_RESCANS = counter("index.rescans");
+    public static final Counter ICON_HITS = counter("icons.hits");
+    public static final Counter ICON_MISSES = counter("icons.misses");
+    public static final Counter CLASSIFICATION_HITS = counter("classification.hits");
+    public static final Counter CLASSIFICATION_MISSES = counter("classification.misses");
+    public static final Counter STRIP_REDRAWS = counter("strip.redraws");
+    public static final Counter SWITCH_COALESCED = counter("switch.coalesced");
+    public static final Counter SWITCH_STALE_INITS = counter("switch.staleInits");
+    public static final Counter SWITCH_REJECTED = counter("switch.rejected");
+    public static final LatencyHistogram RENDER_TABS = histogram("render.tabs");
+    public static final LatencyHistogram INDEX_SCAN = histogram("index.scan");
+    public static final LatencyHistogram DISCOVERY_QUERY = histogram("discovery.query");
+
+    // The enabled flag is re-read from the config only when the config revision changes
+    private static int enabledRevision = -1;
+    private static boolean enabled = false;
+    private static long lastDumpNanos = 0;
+
+    /**
+     * Hooks the metrics into the tab transition tracker. Called once during client setup.
+     */
+    public static void init() {
+        TabTransition.addListener(TabMetrics::onTransitionFinished);
+    }
+
+    public static boolean isEnabled() {
+        int revision = TabConfig.getRevision();
+        if (revision != enabledRevision) {
+            enabledRevision = revision;
+            enabled = revision > 0 && TabConfig.isMetricsEnabled(); // Revision 0 means the config isn't loaded yet
+        }
+        return enabled;
+    }
+
+    /**
+     * Starts a timer for a later {@link #stopTimer} call.
+     * @return The current time, or 0 if metrics are disabled.
+     */
+    public static long startTimer() {
+        return isEnabled() ? System.nanoTime() : 0L;
+    }
+
+    public static void stopTimer(LatencyHistogram histogram, long startNanos) {
+        if (startNanos != 0L) {
+            histogram.record(System.nanoTime() - startNanos);
+        }
+    }
+
+    public static void increment(Counter counter) {
+        if (isEnabled()) {
+            counter.increment();
+        }
+    }
+
+    /**
+     * Gets or creates the counter with the given name.
+     */
+    public static Counter counter(String name) {
+        return counters.computeIfAbsent(name, Counter::new);
+    }
+
+    /**
+     * Gets or creates the histogram with the given name.
+     */
+    public static LatencyHistogram histogram(String name) {
+        return histograms.computeIfAbsent(name, LatencyHistogram::new);
+    }
+
+    /**
+     * Clears all recorded values. Registered metrics stay registered.
+     */
+    public static void reset() {
+        counters.values().forEach(Counter::reset);
+        histograms.values().forEach(LatencyHistogram::reset);
+    }
+
+    /**
+     * Formats every metric as one human readable line.
+     */
+    public static List<String> describe() {
+        List<String> lines = new ArrayList<>();
+        for (Counter counter : counters.values()) {
+            lines.add(counter.getName() + ": " + counter.getCount());
+        }
+        for (LatencyHistogram histogram : histograms.values()) {
+            lines.add(String.format(Locale.ROOT, "%s: n=%d mean=%.1fus p50=%.1fus p99=%.1fus max=%.1fus",
+                    histogram.getName(), histogram.getCount(), histogram.getMeanNanos() / 1000.0,
+                    histogram.getPercentileNanos(50) / 1000.0, histogram.getPercentileNanos(99) / 1000.0,
+                    histogram.getMaxNanos() / 1000.0));
+        }
+        lines.add(String.format(Locale.ROOT, "icons.hitRate: %.1f%%", getHitRate(ICON_HITS, ICON_MISSES) * 100.0));
+        lines.add(String.format(Locale.ROOT, "classification.hitRate: %.1f%%", getHitRate(CLASSIFICATION_HITS, CLASSIFICATION_MISSES) * 100.0));
+        return lines;
+    }
+
+    @SubscribeEvent
+    public static void onClientTick(TickEvent.ClientTickEvent event) {
+        if (event.phase != TickEvent.Phase.END || !isEnabled()) {
+            return;
+        }
+        int intervalSeconds = TabConfig.getMetricsCsvIntervalSeconds();
+        if (intervalSeconds <= 0) {
+            return;
+        }
+
+        long now = System.nanoTime();
+        if (lastDumpNanos == 0) {
+            lastDumpNanos = now;
+            return;
+        }
+        if (now - lastDumpNanos < intervalSeconds * 1_000_000_000L) {
+            return;
+        }
+        lastDumpNanos = now;
+
+        // Snapshot on the client thread, write on the IO pool
+        List<String> rows = csvRows(System.currentTimeMillis());
+        Util.ioPool().execute(() -> appendCsv(rows));
+    }
+
+    private static void onTransitionFinished(String tabType, long latencyNanos, int droppedFrames, boolean completed) {
+        if (!isEnabled()) {
+            return;
+        }
+        if (completed) {
+            histogram("switch.latency." + tabType).record(latencyNanos);
+        } else {
+            counter("switch.abandoned." + tabType).increment();
+        }
+        counter("switch.droppedFrames").add(droppedFrames);
+    }
+
+    private static double getHitRate(Counter hits, Counter misses) {
+        long total = hits.getCount() + misses.getCount();
+        return total == 0 ? 0.0 : (double) hits.getCount() / total;
+    }
+
+    private static List<String> csvRows(long timestamp) {
+        List<String> rows = new ArrayList<>();
+        for (Counter counter : counters.values()) {
+            rows.add(String.format(Locale.ROOT, "%d,%s,counter,%d,,,,,", timestamp, counter.getName(), counter.getCount()));
+        }
+        for (LatencyHistogram histogram : histograms.values()) {
+            rows.add(String.format(Locale.ROOT, "%d,%s,histogram,%d,,%.3f,%.3f,%.3f,%.3f", timestamp,
+                    histogram.getName(), histogram.getCount(), histogram.getMeanNanos() / 1000.0,
+                    histogram.getPercentileNanos(50) / 1000.0, histogram.getPercentileNanos(99) / 1000.0,
+                    histogram.getMaxNanos() / 1000.0));
+        }
+        rows.add(String.format(Locale.ROOT, "%d,icons.hitRate,ratio,,%.4f,,,,", timestamp, getHitRate(ICON_HITS, ICON_MISSES)));
+        rows.add(String.format(Locale.ROOT, "%d,classification.hitRate,ratio,,%.4f,,,,", timestamp, getHitRate(CLASSIFICATION_HITS, CLASSIFICATION_MISSES)));
+        return rows;
+    }
+
+    private static void appendCsv(List<String> rows) {
+        try {
+            Path directory = FMLPaths.GAMEDIR.get().resolve(YukamiBackpackTab.MODID);
+            Files.createDirectories(directory);
+            Path file = directory.resolve("metrics.csv");
+            boolean writeHeader = !Files.exists(file);
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                if (writeHeader) {
+                    writer.write(CSV_HEADER);
+                    writer.newLine();
+                }
+                for (String row : rows) {
+                    writer.write(row);
+                    writer.newLine();
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not write tab metrics: {}", e.getMessage());
+        }
+    }
+}
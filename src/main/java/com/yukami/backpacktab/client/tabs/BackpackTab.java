@@ -1,6 +1,13 @@
 package com.yukami.backpacktab.client.tabs;
 
+import com.yukami.backpacktab.client.adapter.ClientPacketSink;
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.gui.InventoryTabManager;
+import com.yukami.backpacktab.client.jfr.OpenPacketEvent;
+import com.yukami.backpacktab.client.util.BlockClassificationCache;
 import com.yukami.backpacktab.client.util.CarriedItemUtil;
+import com.yukami.backpacktab.client.util.EquippedBackpackIndex;
+import com.yukami.backpacktab.core.open.TabOpenSequence;
 
 import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
 
@@ -10,52 +17,106 @@ import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.network.chat.Component;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.inventory.InventoryMenu;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 import net.p3pp3rf1y.sophisticatedbackpacks.client.gui.IBackpackScreen;
-import net.p3pp3rf1y.sophisticatedbackpacks.network.BackpackOpenMessage;
-import net.p3pp3rf1y.sophisticatedbackpacks.network.SBPPacketHandler;
-import net.p3pp3rf1y.sophisticatedbackpacks.util.PlayerInventoryProvider;
+
+import java.util.UUID;
 
 public class BackpackTab implements InventoryTab {
     
-    private final ItemStack backpackStack;
+    private final EquippedBackpackIndex.Entry backpackEntry;
     private boolean active = false;
     
-    public BackpackTab(ItemStack backpackStack) {
-        this.backpackStack = backpackStack;
+    public BackpackTab(EquippedBackpackIndex.Entry backpackEntry) {
+        this.backpackEntry = backpackEntry;
     }
     
     @Override
     public ItemStack getTabIcon() {
-        return backpackStack;
+        return backpackEntry.stack;
     }
     
     @Override
     public Component getHoverText() {
-        return backpackStack.getHoverName();
+        return backpackEntry.stack.getHoverName();
     }
     
     @Override
-    public void open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
-        if (player == null || gameMode == null || !(player instanceof LocalPlayer localPlayer)) return;
+    public boolean open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
+        if (player == null || gameMode == null || handler == null || !(player instanceof LocalPlayer localPlayer)) return false;
         
         try {
-            // Stash carried item in inventory slot before operations
-            CarriedItemUtil.stashCarriedItem(localPlayer, gameMode, handler);
+            EquippedBackpackIndex.Entry target = findTarget(player); // Already rescanned by canOpen if needed
+            if (target == null) {
+                return false;
+            }
             
-            PlayerInventoryProvider.get().runOnBackpacks(player, (backpack, inventoryName, identifier, slot) -> {
-                if (ItemStack.isSameItem(backpack, backpackStack)) {
-                    SBPPacketHandler.INSTANCE.sendToServer(new BackpackOpenMessage(slot, identifier, inventoryName));
-                    return true; // Stop searching
-                }
-                return false; // Continue searching
-            });
+            OpenPacketEvent packetEvent = new OpenPacketEvent();
+            packetEvent.begin();
+            ClientPacketSink sink = new ClientPacketSink(localPlayer, gameMode, InventoryTabManager.getSwitchSequence());
+            // Close the current menu ourselves so the server doesn't send a close packet that blanks the
+            // old screen while the backpack is being opened
+            boolean closeCurrent = TabConfig.isOptimisticTransitions() && !(handler instanceof InventoryMenu);
+            String route = TabOpenSequence.openBackpack(target.inventoryName, target.identifier, target.slot, handler.containerId,
+                    usesServerSwitch(), closeCurrent, () -> CarriedItemUtil.stashCarriedItem(localPlayer, gameMode, handler), sink);
+            packetEvent.route = route;
+            packetEvent.commitWith(getClass().getSimpleName(), handler.containerId, null);
+            return true;
         } catch (Exception e) {
             LOGGER.error("Error opening backpack: {}", e.getMessage());
+            return false;
         }
     }
     
+    @Override
+    public boolean usesServerSwitch() {
+        LocalPlayer player = net.minecraft.client.Minecraft.getInstance().player;
+        return player != null && ClientPacketSink.isServerSupported(player);
+    }
+    
+    @Override
+    public boolean canOpen() {
+        Player player = net.minecraft.client.Minecraft.getInstance().player;
+        if (player == null) {
+            return false;
+        }
+        if (findTarget(player) != null) {
+            return true;
+        }
+        // The cached slot no longer holds this backpack and the index may be behind (e.g. Curios), so rescan once
+        EquippedBackpackIndex.rescan(player);
+        return findTarget(player) != null;
+    }
+    
+    /**
+     * Finds the index entry holding this tab's backpack, checking the remembered slot first.
+     */
+    private EquippedBackpackIndex.Entry findTarget(Player player) {
+        java.util.List<EquippedBackpackIndex.Entry> entries = EquippedBackpackIndex.getEntries(player);
+        for (EquippedBackpackIndex.Entry entry : entries) {
+            if (entry.sameLocation(backpackEntry) && holdsThisBackpack(entry)) {
+                return entry;
+            }
+        }
+        // The backpack moved to another slot
+        for (EquippedBackpackIndex.Entry entry : entries) {
+            if (holdsThisBackpack(entry)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+    
+    private boolean holdsThisBackpack(EquippedBackpackIndex.Entry entry) {
+        if (backpackEntry.storageUuid != null) {
+            return backpackEntry.storageUuid.equals(entry.storageUuid);
+        }
+        // Backpacks that were never opened have no storage UUID yet
+        return entry.storageUuid == null && ItemStack.isSameItem(entry.stack, backpackEntry.stack);
+    }
+    
     @Override
     public void close(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
         // Backpack closing is handled by the server
@@ -69,22 +130,32 @@ public class BackpackTab implements InventoryTab {
         
         // Check if we're in a block context - if so, this equipped backpack tab should NOT be active
         // The block's ContainerTab should be active instead
-        net.minecraft.core.BlockPos storedPos = com.yukami.backpacktab.client.gui.InventoryTabManager.getStoredBlockPos();
-        if (storedPos != null) {
-            net.minecraft.world.level.Level world = net.minecraft.client.Minecraft.getInstance().level;
-            if (world != null) {
-                net.minecraft.world.level.block.state.BlockState blockState = world.getBlockState(storedPos);
-                if (blockState.getBlock() instanceof net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock) {
-                    // We're viewing a backpack block, so this equipped backpack tab should NOT be active
-                    return false;
-                }
-            }
+        net.minecraft.core.BlockPos storedPos = InventoryTabManager.getStoredBlockPos();
+        if (storedPos != null && BlockClassificationCache.classify(net.minecraft.client.Minecraft.getInstance().level, storedPos)
+                == BlockClassificationCache.Classification.BACKPACK) {
+            // We're viewing a backpack block, so this equipped backpack tab should NOT be active
+            return false;
         }
         
         // No block context, so this equipped backpack tab should be active
         return true;
     }
     
+    /**
+     * Returns the Sophisticated Backpacks storage id of this backpack, or null if it was never opened.
+     */
+    public UUID getStorageUuid() {
+        return backpackEntry.storageUuid;
+    }
+    
+    @Override
+    public Object getTabKey() {
+        if (backpackEntry.storageUuid != null) {
+            return backpackEntry.storageUuid;
+        }
+        return backpackEntry.inventoryName + "/" + backpackEntry.identifier + "/" + backpackEntry.slot;
+    }
+    
     @Override
     public boolean isActive() {
         return active;
@@ -1,29 +1,30 @@
 package com.yukami.backpacktab.client.tabs;
 
+import com.yukami.backpacktab.client.adapter.ClientPacketSink;
+import com.yukami.backpacktab.client.adapter.ClientScreenFactory;
+import com.yukami.backpacktab.client.gui.InventoryTabManager;
+import com.yukami.backpacktab.client.jfr.OpenPacketEvent;
+import com.yukami.backpacktab.client.util.BlockClassificationCache;
 import com.yukami.backpacktab.client.util.CarriedItemUtil;
-
-import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+import com.yukami.backpacktab.client.util.ContainerIconCache;
+import com.yukami.backpacktab.core.open.TabOpenSequence;
 
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.multiplayer.MultiPlayerGameMode;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
-import net.minecraft.core.Direction;
 import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.game.ServerboundContainerClosePacket;
-import net.minecraft.world.InteractionHand;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
-import net.minecraft.world.level.block.state.BlockState;
-import net.minecraft.world.phys.BlockHitResult;
-import net.minecraft.world.phys.Vec3;
 import net.p3pp3rf1y.sophisticatedbackpacks.client.gui.IBackpackScreen;
 
 public class ContainerTab implements InventoryTab {
     
+    private static final Component FALLBACK_HOVER_TEXT = Component.literal("Container");
+    
     private final BlockPos containerPos;
     private boolean active = false;
         
@@ -33,70 +34,43 @@ public class ContainerTab implements InventoryTab {
     
     @Override
     public ItemStack getTabIcon() {
-        if (containerPos != null) {
-            Level world = Minecraft.getInstance().level;
-            if (world != null) {
-                BlockState blockState = world.getBlockState(containerPos);
-                
-                // Special handling for BackpackBlock - get the actual backpack item from block entity
-                if (blockState.getBlock() instanceof net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock) {
-                    try {
-                        var blockEntity = world.getBlockEntity(containerPos);
-                        if (blockEntity instanceof net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlockEntity backpackBE) {
-                            ItemStack backpackStack = backpackBE.getBackpackWrapper().getBackpack();
-                            if (!backpackStack.isEmpty()) {
-                                return backpackStack;
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOGGER.error("Error getting backpack from block entity: {}", e.getMessage());
-                    }
-                }
-                
-                // Fallback to block item
-                ItemStack icon = new ItemStack(blockState.getBlock());
-                return icon;
-            }
-        }
-        return ItemStack.EMPTY;
+        ContainerIconCache.Entry entry = getIconEntry();
+        return entry != null ? entry.icon : ItemStack.EMPTY;
     }
     
     @Override
     public Component getHoverText() {
-        ItemStack icon = getTabIcon();
-        return icon.isEmpty() ? Component.literal("Container") : icon.getHoverName();
+        ContainerIconCache.Entry entry = getIconEntry();
+        return entry != null ? entry.hoverText : FALLBACK_HOVER_TEXT;
+    }
+    
+    private ContainerIconCache.Entry getIconEntry() {
+        if (containerPos == null) {
+            return null;
+        }
+        Level world = Minecraft.getInstance().level;
+        return world != null ? ContainerIconCache.get(world, containerPos) : null;
     }
     
     @Override
-    public void open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
-        if (player == null || gameMode == null || !(player instanceof LocalPlayer localPlayer)) return;
+    public boolean open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
+        if (player == null || gameMode == null || handler == null || !(player instanceof LocalPlayer localPlayer)) return false;
         
+        OpenPacketEvent packetEvent = new OpenPacketEvent();
+        packetEvent.begin();
         try {
-            if (containerPos != null) {
-                // Step 1: Stash carried item in inventory slot before closing container
-                CarriedItemUtil.stashCarriedItem(localPlayer, gameMode, handler);
-                
-                // Step 2: Inform the server that the current container is being closed.
-                // This is necessary to prevent desynchronization issues.
-                if (handler != null && localPlayer.connection != null) {
-                    localPlayer.connection.send(new ServerboundContainerClosePacket(handler.containerId));
-                }
-                
-                // Step 3: Simulate a right-click on the target block to open its GUI.
-                // We create a "hit result" to specify which block we are "clicking".
-                Vec3 hitVec = Vec3.atCenterOf(containerPos);
-                BlockHitResult hitResult = new BlockHitResult(hitVec, Direction.UP, containerPos, false);
-                
-                // The gameMode's useItemOn method sends the interaction packet to the server.
-                gameMode.useItemOn(localPlayer, InteractionHand.MAIN_HAND, hitResult);
-                
-            } else {
-                // If the container position is null, close the screen.
-                Minecraft.getInstance().setScreen(null);
+            ClientPacketSink sink = new ClientPacketSink(localPlayer, gameMode, InventoryTabManager.getSwitchSequence());
+            String route = TabOpenSequence.openContainer(containerPos, handler.containerId, usesServerSwitch(),
+                    () -> CarriedItemUtil.stashCarriedItem(localPlayer, gameMode, handler), sink, new ClientScreenFactory(localPlayer));
+            if (route == null) {
+                return false; // The screen was closed instead
             }
-            
+            packetEvent.route = route;
+            packetEvent.commitWith(getClass().getSimpleName(), handler.containerId, containerPos);
+            return true;
         } catch (Exception e) {
             Minecraft.getInstance().setScreen(null);
+            return false;
         }
     }
     
@@ -112,19 +86,38 @@ public class ContainerTab implements InventoryTab {
         }
         
         // Check if this is a backpack block
-        Level world = Minecraft.getInstance().level;
-        if (world != null) {
-            BlockState blockState = world.getBlockState(containerPos);
-            if (blockState.getBlock() instanceof net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock) {
-                // For backpack blocks, match if the screen is a backpack screen
-                return screen instanceof IBackpackScreen;
-            }
+        if (BlockClassificationCache.classify(Minecraft.getInstance().level, containerPos) == BlockClassificationCache.Classification.BACKPACK) {
+            // For backpack blocks, match if the screen is a backpack screen
+            return screen instanceof IBackpackScreen;
         }
         
         // For regular container blocks, match if it's not a backpack screen
         return !(screen instanceof IBackpackScreen);
     }
     
+    @Override
+    public boolean usesServerSwitch() {
+        // The server only switches to real containers; blocks matched by additionalTabBlocks take the vanilla route
+        Minecraft minecraft = Minecraft.getInstance();
+        return minecraft.player != null && ClientPacketSink.isServerSupported(minecraft.player)
+            && BlockClassificationCache.classify(minecraft.level, containerPos) != BlockClassificationCache.Classification.ADDITIONAL;
+    }
+    
+    @Override
+    public Object getTabKey() {
+        return containerPos;
+    }
+    
+    @Override
+    public boolean canOpen() {
+        // History tabs can go out of reach or be broken after the strip was built
+        return InventoryTabManager.isBlockStillValid(containerPos);
+    }
+    
+    public BlockPos getContainerPos() {
+        return containerPos;
+    }
+    
     @Override
     public boolean isActive() {
         return active;
@@ -1,5 +1,7 @@
 package com.yukami.backpacktab.client.tabs;
 
+import com.yukami.backpacktab.core.tabs.CoreTab;
+
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.multiplayer.MultiPlayerGameMode;
 import net.minecraft.network.chat.Component;
@@ -8,7 +10,7 @@ import net.minecraft.world.inventory.AbstractContainerMenu;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.level.Level;
 
-public interface InventoryTab {
+public interface InventoryTab extends CoreTab {
     
     /**
      * Gets the item stack to display as the tab icon
@@ -22,8 +24,9 @@ public interface InventoryTab {
     
     /**
      * Opens the inventory associated with this tab
+     * @return True if a packet was sent or a screen was opened, false if nothing happened.
      */
-    void open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode);
+    boolean open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode);
     
     /**
      * Closes the inventory associated with this tab
@@ -36,14 +39,19 @@ public interface InventoryTab {
     boolean matchesCurrentScreen(AbstractContainerScreen<?> screen);
 
     /**
-     * Returns true if this tab is currently active
+     * Tabs are keyed by their class unless they open something more specific.
      */
-    boolean isActive();
-    
+    @Override
+    default Object getTabKey() {
+        return getClass();
+    }
+
     /**
-     * Sets the active state of this tab
+     * Returns true if the tab can still be opened. Checked right before a click opens it.
      */
-    void setActive(boolean active);
+    default boolean canOpen() {
+        return true;
+    }
 
     /**
      * Returns true if this tab represents an "instant" client-side screen (like the player inventory)
@@ -52,4 +60,12 @@ public interface InventoryTab {
     default boolean isInstant() {
         return false;
     }
+
+    /**
+     * Returns true if open() takes the server half's switch route, where the server answers every request
+     * with a screen, a close or a rejection.
+     */
+    default boolean usesServerSwitch() {
+        return false;
+    }
 }
@@ -3,23 +3,39 @@ package com.yukami.backpacktab.client.tabs;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
 import net.minecraft.client.gui.screens.inventory.InventoryScreen;
+import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.client.multiplayer.MultiPlayerGameMode;
+import net.minecraft.client.multiplayer.PlayerInfo;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.NbtUtils;
 import net.minecraft.network.chat.Component;
-import net.minecraft.network.protocol.game.ServerboundContainerClosePacket; // Added import
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.inventory.AbstractContainerMenu;
-import net.minecraft.world.inventory.InventoryMenu; // Added import
+import net.minecraft.world.inventory.InventoryMenu;
 import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.Items;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.GameType;
+import net.minecraft.world.level.block.entity.SkullBlockEntity;
 import com.mojang.authlib.GameProfile;
+import com.yukami.backpacktab.client.adapter.ClientPacketSink;
+import com.yukami.backpacktab.client.adapter.ClientScreenFactory;
 import com.yukami.backpacktab.client.util.CarriedItemUtil;
+import com.yukami.backpacktab.core.open.TabOpenSequence;
+
+import java.util.Objects;
+import java.util.UUID;
 
 public class PlayerTab implements InventoryTab {
     
+    private static final Component FALLBACK_NAME = Component.literal("Player");
+    
+    // Head icon and name are built once per profile and shared by all player tabs for the session
+    private static UUID cachedProfileId = null;
+    private static ItemStack cachedHead = ItemStack.EMPTY;
+    private static Component cachedName = null;
+    
     private boolean active = false;
     
     public PlayerTab() {
@@ -33,20 +49,8 @@ public class PlayerTab implements InventoryTab {
         if (player == null) {
             return ItemStack.EMPTY;
         }
-
-        ItemStack playerHead = new ItemStack(Items.PLAYER_HEAD);
-        CompoundTag tag = playerHead.getOrCreateTag();
-        GameProfile gameProfile = player.getGameProfile();
-        
-        // Ensure the UUID is not null before putting it into the tag
-        if (gameProfile.getId() != null) {
-            CompoundTag skullOwnerTag = new CompoundTag();
-            skullOwnerTag.putString("Name", gameProfile.getName());
-            skullOwnerTag.putUUID("Id", gameProfile.getId());
-            tag.put("SkullOwner", skullOwnerTag);
-        }
-        playerHead.setTag(tag);
-        return playerHead;
+        ensureCached(player);
+        return cachedHead;
     }
     
     @Override
@@ -54,26 +58,74 @@ public class PlayerTab implements InventoryTab {
         Minecraft minecraft = Minecraft.getInstance();
         LocalPlayer player = minecraft.player;
         if (player == null) {
-            return Component.literal("Player");
+            return FALLBACK_NAME;
         }
-        return Component.literal(player.getName().getString());
+        ensureCached(player);
+        return cachedName;
     }
     
-    @Override
-    public void open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
-        if (player == null || gameMode == null || !(player instanceof LocalPlayer localPlayer)) return;
-
-        // Stash carried item in inventory slot before opening the screen
-        CarriedItemUtil.stashCarriedItem(localPlayer, gameMode, handler);
-
-        // If we are currently in a server-side container (not player inventory), close it first
-        if (handler != null && !(handler instanceof InventoryMenu) && localPlayer.connection != null) {
-            localPlayer.connection.send(new ServerboundContainerClosePacket(handler.containerId));
+    /**
+     * Builds the head icon and name for the player's profile if they aren't cached yet.
+     */
+    private static void ensureCached(LocalPlayer player) {
+        GameProfile gameProfile = player.getGameProfile();
+        if (cachedName != null && Objects.equals(gameProfile.getId(), cachedProfileId)) {
+            return;
         }
-
-        if (gameMode.getPlayerMode() == GameType.SURVIVAL || gameMode.getPlayerMode() == GameType.ADVENTURE) {
-            Minecraft.getInstance().setScreen(new InventoryScreen(localPlayer));
+        cachedProfileId = gameProfile.getId();
+        cachedName = Component.literal(player.getName().getString());
+        cachedHead = createHead(resolveProfile(gameProfile));
+    }
+    
+    /**
+     * Prefers the tab list profile, which already carries the skin textures sent by the server.
+     */
+    private static GameProfile resolveProfile(GameProfile gameProfile) {
+        ClientPacketListener connection = Minecraft.getInstance().getConnection();
+        if (connection != null && gameProfile.getId() != null) {
+            PlayerInfo playerInfo = connection.getPlayerInfo(gameProfile.getId());
+            if (playerInfo != null) {
+                return playerInfo.getProfile();
+            }
         }
+        return gameProfile;
+    }
+    
+    private static ItemStack createHead(GameProfile gameProfile) {
+        // A head without an owner renders with the Steve skin, which is also the offline fallback
+        ItemStack playerHead = new ItemStack(Items.PLAYER_HEAD);
+        if (gameProfile.getId() == null) {
+            return playerHead;
+        }
+        
+        if (hasTextures(gameProfile)) {
+            playerHead.getOrCreateTag().put("SkullOwner", NbtUtils.writeGameProfile(new CompoundTag(), gameProfile));
+            return playerHead;
+        }
+        
+        // Resolve the skin asynchronously and patch the cached head once it arrives
+        UUID profileId = gameProfile.getId();
+        SkullBlockEntity.updateGameprofile(gameProfile, resolved -> {
+            if (resolved != null && hasTextures(resolved) && profileId.equals(cachedProfileId)) {
+                cachedHead.getOrCreateTag().put("SkullOwner", NbtUtils.writeGameProfile(new CompoundTag(), resolved));
+            }
+        });
+        return playerHead;
+    }
+    
+    private static boolean hasTextures(GameProfile gameProfile) {
+        return gameProfile.getProperties().containsKey("textures");
+    }
+    
+    @Override
+    public boolean open(Player player, Level world, AbstractContainerMenu handler, MultiPlayerGameMode gameMode) {
+        if (player == null || gameMode == null || handler == null || !(player instanceof LocalPlayer localPlayer)) return false;
+
+        boolean survivalInventory = gameMode.getPlayerMode() == GameType.SURVIVAL || gameMode.getPlayerMode() == GameType.ADVENTURE;
+        TabOpenSequence.openPlayerInventory(handler.containerId, handler instanceof InventoryMenu, survivalInventory,
+                () -> CarriedItemUtil.stashCarriedItem(localPlayer, gameMode, handler),
+                new ClientPacketSink(localPlayer, gameMode), new ClientScreenFactory(localPlayer));
+        return true;
     }
     
     @Override
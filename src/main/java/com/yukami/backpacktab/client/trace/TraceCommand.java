@@ -0,0 +1,90 @@
+package com.yukami.backpacktab.client.trace;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import com.mojang.brigadier.context.CommandContext;
+import com.yukami.backpacktab.YukamiBackpackTab;
+import com.yukami.backpacktab.client.gui.InventoryTabManager;
+import com.yukami.backpacktab.core.trace.RecordingTabSession;
+import com.yukami.backpacktab.core.trace.TraceEvent;
+import com.yukami.backpacktab.core.trace.TraceFormat;
+import com.yukami.backpacktab.core.trace.TraceRecorder;
+
+import net.minecraft.Util;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.RegisterClientCommandsEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.loading.FMLPaths;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Client command that records the tab manager's session inputs for the headless replayer in the core
+ * module: {@code /backpacktab trace start} and {@code /backpacktab trace stop}.
+ * Traces are written to {@code yukamibackpacktab/traces} in the game directory.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class TraceCommand {
+    private static final int MAX_EVENTS = 1_000_000;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    @SubscribeEvent
+    public static void onRegisterClientCommands(RegisterClientCommandsEvent event) {
+        event.getDispatcher().register(Commands.literal("backpacktab")
+            .then(Commands.literal("trace")
+                .then(Commands.literal("start")
+                    .executes(TraceCommand::start))
+                .then(Commands.literal("stop")
+                    .executes(TraceCommand::stop))));
+    }
+
+    private static int start(CommandContext<CommandSourceStack> context) {
+        RecordingTabSession<?, ?> session = InventoryTabManager.getSession();
+        if (session.isRecording()) {
+            context.getSource().sendSuccess(() -> Component.literal("Already recording a tab trace (" + session.getRecordedCount() + " events)"), false);
+            return 0;
+        }
+        session.startRecording(MAX_EVENTS);
+        context.getSource().sendSuccess(() -> Component.literal("Recording tab trace"), false);
+        return 1;
+    }
+
+    private static int stop(CommandContext<CommandSourceStack> context) {
+        TraceRecorder recorder = InventoryTabManager.getSession().stopRecording();
+        if (recorder == null) {
+            context.getSource().sendSuccess(() -> Component.literal("No tab trace is being recorded"), false);
+            return 0;
+        }
+
+        List<TraceEvent> events = recorder.getEvents();
+        Path file = FMLPaths.GAMEDIR.get().resolve(YukamiBackpackTab.MODID).resolve("traces")
+            .resolve("trace-" + LocalDateTime.now().format(FILE_TIME) + ".ybt");
+        String truncated = recorder.isTruncated() ? " (truncated at " + MAX_EVENTS + ")" : "";
+        context.getSource().sendSuccess(() -> Component.literal("Writing " + events.size() + " events" + truncated + " to " + file), false);
+        // The command may run again before the write finishes, but each recording gets its own event list
+        Util.ioPool().execute(() -> write(file, events));
+        return 1;
+    }
+
+    private static void write(Path file, List<TraceEvent> events) {
+        try {
+            Files.createDirectories(file.getParent());
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+                TraceFormat.write(out, events);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Could not write tab trace: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.yukami.backpacktab.client.util;
+
+import com.yukami.backpacktab.client.adapter.RegistryBlockLookup;
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.core.tabs.AdditionalBlockRules;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import net.minecraft.world.level.block.Block;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.Set;
+
+/**
+ * Matches blocks against the additionalTabBlocks config list, compiled by the core
+ * {@link AdditionalBlockRules} against the block registry once per config revision and tag reload.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class AdditionalBlockMatcher {
+    private static Set<Block> compiledBlocks = null;
+    private static int compiledRevision = -1;
+
+    /**
+     * Checks if the given block is covered by the additional tab blocks configuration.
+     * @param block The block to check.
+     * @return True if the block matches any configured entry, false otherwise.
+     */
+    public static boolean matches(Block block) {
+        return getCompiledBlocks().contains(block);
+    }
+
+    /**
+     * Forces the configured list to be recompiled on the next lookup.
+     */
+    public static void invalidate() {
+        compiledBlocks = null;
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        // Tag contents arrive from the server after login, so expanded tag entries must be recompiled
+        invalidate();
+    }
+
+    private static Set<Block> getCompiledBlocks() {
+        int revision = TabConfig.getRevision();
+        Set<Block> blocks = compiledBlocks;
+        if (blocks == null || compiledRevision != revision) {
+            blocks = AdditionalBlockRules.compile(TabConfig.getAdditionalTabBlocks(), RegistryBlockLookup.INSTANCE,
+                (entry, e) -> LOGGER.warn("Ignoring invalid additionalTabBlocks entry '{}': {}", entry, e.getMessage()));
+            compiledBlocks = blocks;
+            compiledRevision = revision;
+        }
+        return blocks;
+    }
+}
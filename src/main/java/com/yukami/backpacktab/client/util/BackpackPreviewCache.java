@@ -0,0 +1,134 @@
+package com.yukami.backpacktab.client.util;
+
+import com.yukami.backpacktab.client.config.TabConfig;
+
+import net.minecraft.client.gui.screens.inventory.AbstractContainerScreen;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ScreenEvent;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.p3pp3rf1y.sophisticatedbackpacks.common.gui.BackpackContainer;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Compact snapshots of backpack contents, keyed by the backpack's storage UUID, for the tab hover preview.
+ * A snapshot is taken from the synced menu slots whenever a backpack screen closes, i.e. the last
+ * state the player saw. Only item id, count and a few flags are kept, in primitive arrays; the cache
+ * is bounded by backpackPreviewCacheSize and evicts the least recently used backpack.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class BackpackPreviewCache {
+    public static final byte FLAG_FOIL = 1;
+    public static final byte FLAG_HAS_TAG = 2;
+
+    public static class Snapshot {
+        public final int slotCount; // Storage slots of the backpack, including empty ones
+        public final int[] itemIds; // Raw registry ids of the non-empty slots, in slot order
+        public final int[] counts;
+        public final byte[] flags;
+
+        Snapshot(int slotCount, int[] itemIds, int[] counts, byte[] flags) {
+            this.slotCount = slotCount;
+            this.itemIds = itemIds;
+            this.counts = counts;
+            this.flags = flags;
+        }
+
+        public int getStackCount() {
+            return itemIds.length;
+        }
+
+        /**
+         * Builds display stacks for the first {@code max} non-empty slots. Allocates, so callers should
+         * do this once per hover rather than per frame.
+         */
+        public ItemStack[] toStacks(int max) {
+            ItemStack[] stacks = new ItemStack[Math.min(max, itemIds.length)];
+            for (int i = 0; i < stacks.length; i++) {
+                Item item = BuiltInRegistries.ITEM.byId(itemIds[i]);
+                ItemStack stack = new ItemStack(item, 1);
+                if ((flags[i] & FLAG_FOIL) != 0 && !stack.hasFoil()) {
+                    // The snapshot has no NBT; a placeholder enchantment entry is enough for the glint
+                    ListTag enchantments = new ListTag();
+                    enchantments.add(new CompoundTag());
+                    stack.getOrCreateTag().put("Enchantments", enchantments);
+                }
+                stack.setCount(counts[i]);
+                stacks[i] = stack;
+            }
+            return stacks;
+        }
+    }
+
+    // Access-ordered, so iteration order is least recently used first
+    private static final Map<UUID, Snapshot> snapshots = new LinkedHashMap<>(16, 0.75F, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<UUID, Snapshot> eldest) {
+            return size() > TabConfig.getBackpackPreviewCacheSize();
+        }
+    };
+
+    /**
+     * Returns the latest snapshot of a backpack's contents, or null if it wasn't seen yet.
+     */
+    public static Snapshot get(UUID storageUuid) {
+        return storageUuid == null ? null : snapshots.get(storageUuid);
+    }
+
+    public static void clear() {
+        snapshots.clear();
+    }
+
+    @SubscribeEvent
+    public static void onScreenClose(ScreenEvent.Closing event) {
+        if (TabConfig.getBackpackPreviewCacheSize() <= 0) {
+            return;
+        }
+        if (event.getScreen() instanceof AbstractContainerScreen<?> screen
+                && screen.getMenu() instanceof BackpackContainer container) {
+            container.getStorageWrapper().getContentsUuid().ifPresent(uuid -> snapshots.put(uuid, capture(container)));
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel().isClientSide()) {
+            clear();
+        }
+    }
+
+    private static Snapshot capture(BackpackContainer container) {
+        int slotCount = Math.min(container.getNumberOfStorageInventorySlots(), container.slots.size());
+        int nonEmpty = 0;
+        for (int i = 0; i < slotCount; i++) {
+            if (!container.getSlot(i).getItem().isEmpty()) {
+                nonEmpty++;
+            }
+        }
+
+        int[] itemIds = new int[nonEmpty];
+        int[] counts = new int[nonEmpty];
+        byte[] flags = new byte[nonEmpty];
+        int index = 0;
+        for (int i = 0; i < slotCount && index < nonEmpty; i++) {
+            ItemStack stack = container.getSlot(i).getItem();
+            if (stack.isEmpty()) {
+                continue;
+            }
+            itemIds[index] = BuiltInRegistries.ITEM.getId(stack.getItem());
+            counts[index] = stack.getCount();
+            flags[index] = (byte) ((stack.hasFoil() ? FLAG_FOIL : 0) | (stack.hasTag() ? FLAG_HAS_TAG : 0));
+            index++;
+        }
+        return new Snapshot(slotCount, itemIds, counts, flags);
+    }
+}
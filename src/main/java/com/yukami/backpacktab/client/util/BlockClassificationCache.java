@@ -0,0 +1,120 @@
+package com.yukami.backpacktab.client.util;
+
+import com.yukami.backpacktab.client.config.TabConfig;
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Caches how a block state is classified for tab purposes, including negative results and blocks
+ * whose getMenuProvider throws. States with a block entity that resolve to MENU_PROVIDER, NONE or THROWS
+ * are not cached, because the answer depends on the block entity rather than the state.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class BlockClassificationCache {
+
+    public enum Classification {
+        BACKPACK,
+        ADDITIONAL,
+        MENU_PROVIDER,
+        NONE,
+        THROWS;
+
+        /**
+         * Returns true if blocks with this classification get a container tab.
+         */
+        public boolean isContainer() {
+            return this == BACKPACK || this == ADDITIONAL || this == MENU_PROVIDER;
+        }
+    }
+
+    private static final Map<BlockState, Classification> cache = new IdentityHashMap<>();
+    private static int cachedRevision = -1;
+
+    /**
+     * Classifies the block at the given position.
+     * @param world The world instance.
+     * @param pos The block position.
+     * @return The classification, or NONE if the world or position is missing.
+     */
+    public static Classification classify(Level world, BlockPos pos) {
+        if (world == null || pos == null) {
+            return Classification.NONE;
+        }
+        return classify(world, pos, world.getBlockState(pos));
+    }
+
+    /**
+     * Classifies an already looked-up block state at the given position.
+     */
+    public static Classification classify(Level world, BlockPos pos, BlockState blockState) {
+        int revision = TabConfig.getRevision();
+        if (cachedRevision != revision) {
+            // The additional blocks list may have changed
+            cache.clear();
+            cachedRevision = revision;
+        }
+
+        Classification cached = cache.get(blockState);
+        if (cached != null) {
+            TabMetrics.increment(TabMetrics.CLASSIFICATION_HITS);
+            return cached;
+        }
+        TabMetrics.increment(TabMetrics.CLASSIFICATION_MISSES);
+
+        // Check if it's a BackpackBlock (which doesn't implement MenuProvider)
+        if (blockState.getBlock() instanceof BackpackBlock) {
+            cache.put(blockState, Classification.BACKPACK);
+            return Classification.BACKPACK;
+        }
+
+        // Check if the block is in the additional configured blocks list
+        if (AdditionalBlockMatcher.matches(blockState.getBlock())) {
+            cache.put(blockState, Classification.ADDITIONAL);
+            return Classification.ADDITIONAL;
+        }
+
+        Classification result;
+        try {
+            result = blockState.getMenuProvider(world, pos) != null ? Classification.MENU_PROVIDER : Classification.NONE;
+        } catch (Exception e) {
+            result = Classification.THROWS;
+        }
+
+        // Menu providers backed by a block entity depend on that entity, not just the state. That includes
+        // throwing ones, which usually throw because the entity is missing or not synced yet
+        if (!blockState.hasBlockEntity()) {
+            cache.put(blockState, result);
+        }
+        return result;
+    }
+
+    /**
+     * Clears all cached classifications.
+     */
+    public static void invalidate() {
+        cache.clear();
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        // Fired after registries and tags are synced on login, which can change additional block matches
+        invalidate();
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        invalidate();
+    }
+}
@@ -0,0 +1,98 @@
+package com.yukami.backpacktab.client.util;
+
+import com.yukami.backpacktab.client.config.TabConfig;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.ChestBlock;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.ChestType;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Bounded most-recently-used list of container positions the player opened, most recent first.
+ * Both halves of a double chest are stored under one canonical position. Entries are never polled;
+ * callers validate them when they are about to be shown or clicked.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class ContainerHistory {
+    private static final List<BlockPos> entries = new ArrayList<>();
+
+    /**
+     * Moves the container at the given position to the front of the history, evicting the oldest entry if full.
+     * @param world The world instance.
+     * @param pos The container position.
+     */
+    public static void record(Level world, BlockPos pos) {
+        int maxSize = TabConfig.getContainerHistorySize();
+        if (maxSize <= 0 || world == null || pos == null) {
+            entries.clear();
+            return;
+        }
+        BlockPos canonical = canonicalize(world, pos);
+        entries.remove(canonical);
+        entries.add(0, canonical);
+        trim(maxSize);
+    }
+
+    /**
+     * Gets the remembered container positions, most recent first.
+     * @return An unmodifiable view of the history.
+     */
+    public static List<BlockPos> getEntries() {
+        trim(TabConfig.getContainerHistorySize()); // The configured size may have shrunk since the last record
+        return Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Forgets a single position, e.g. when the container there was broken.
+     */
+    public static void remove(BlockPos pos) {
+        entries.remove(pos);
+    }
+
+    public static void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Maps both halves of a double chest to the same position (the one with the lower packed value).
+     * Any other block maps to itself.
+     * @param world The world instance.
+     * @param pos The block position.
+     * @return An immutable canonical position.
+     */
+    public static BlockPos canonicalize(Level world, BlockPos pos) {
+        BlockState state = world.getBlockState(pos);
+        if (state.getBlock() instanceof ChestBlock && state.hasProperty(ChestBlock.TYPE)
+                && state.getValue(ChestBlock.TYPE) != ChestType.SINGLE) {
+            BlockPos other = pos.relative(ChestBlock.getConnectedDirection(state));
+            if (world.getBlockState(other).is(state.getBlock()) && other.asLong() < pos.asLong()) {
+                return other.immutable();
+            }
+        }
+        return pos.immutable();
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel().isClientSide()) {
+            // Positions are meaningless in the next level
+            clear();
+        }
+    }
+
+    private static void trim(int maxSize) {
+        int limit = Math.max(0, maxSize);
+        while (entries.size() > limit) {
+            entries.remove(entries.size() - 1);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.yukami.backpacktab.client.util;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.event.level.LevelEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock;
+import net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlockEntity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded LRU cache of container tab icons and hover texts, keyed by position and validated
+ * against the block state. Backpack block entries also remember the backpack stack they were
+ * built from, so a block entity data update for that position can be detected.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class ContainerIconCache {
+    private static final int MAX_ENTRIES = 64;
+    private static final Component FALLBACK_HOVER_TEXT = Component.literal("Container");
+
+    public static class Entry {
+        public final BlockState state;
+        public final ItemStack icon;
+        public final Component hoverText;
+        private final ItemStack backpackSource; // Stack read from a backpack block entity, or null
+
+        private Entry(BlockState state, ItemStack icon, Component hoverText, ItemStack backpackSource) {
+            this.state = state;
+            this.icon = icon;
+            this.hoverText = hoverText;
+            this.backpackSource = backpackSource;
+        }
+    }
+
+    private static final Map<BlockPos, Entry> cache = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<BlockPos, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Gets the icon and hover text for the container at the given position.
+     * @param world The world instance.
+     * @param pos The container position.
+     * @return The cached entry, built on a miss or when the block state changed.
+     */
+    public static Entry get(Level world, BlockPos pos) {
+        BlockState blockState = world.getBlockState(pos);
+        Entry entry = cache.get(pos);
+        if (entry != null && entry.state == blockState) {
+            TabMetrics.increment(TabMetrics.ICON_HITS);
+            return entry;
+        }
+
+        TabMetrics.increment(TabMetrics.ICON_MISSES);
+        entry = create(world, pos, blockState);
+        cache.put(pos.immutable(), entry);
+        return entry;
+    }
+
+    /**
+     * Drops the entry for a backpack block if its block entity now holds a different backpack stack,
+     * which is how a block entity data update shows up on the client.
+     * @return True if an entry was dropped.
+     */
+    public static boolean revalidate(Level world, BlockPos pos) {
+        Entry entry = cache.get(pos);
+        if (entry == null || entry.backpackSource == null) {
+            return false;
+        }
+        if (getBackpackStack(world, pos) != entry.backpackSource) {
+            cache.remove(pos);
+            return true;
+        }
+        return false;
+    }
+
+    public static void clear() {
+        cache.clear();
+    }
+
+    @SubscribeEvent
+    public static void onLevelUnload(LevelEvent.Unload event) {
+        if (event.getLevel().isClientSide()) {
+            clear();
+        }
+    }
+
+    private static Entry create(Level world, BlockPos pos, BlockState blockState) {
+        // Special handling for BackpackBlock - get the actual backpack item from block entity
+        if (blockState.getBlock() instanceof BackpackBlock) {
+            ItemStack backpackStack = getBackpackStack(world, pos);
+            if (backpackStack != null && !backpackStack.isEmpty()) {
+                return new Entry(blockState, backpackStack, backpackStack.getHoverName(), backpackStack);
+            }
+        }
+
+        // Fallback to block item
+        ItemStack icon = new ItemStack(blockState.getBlock());
+        return new Entry(blockState, icon, icon.isEmpty() ? FALLBACK_HOVER_TEXT : icon.getHoverName(), null);
+    }
+
+    private static ItemStack getBackpackStack(Level world, BlockPos pos) {
+        try {
+            BlockEntity blockEntity = world.getBlockEntity(pos);
+            if (blockEntity instanceof BackpackBlockEntity backpackBE) {
+                return backpackBE.getBackpackWrapper().getBackpack();
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error getting backpack from block entity: {}", e.getMessage());
+        }
+        return null;
+    }
+}
@@ -0,0 +1,150 @@
+package com.yukami.backpacktab.client.util;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.item.ItemStack;
+import net.minecraftforge.fml.ModList;
+import net.p3pp3rf1y.sophisticatedbackpacks.util.PlayerInventoryProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Client-side index of the player's equipped backpacks (every inventory handler except "main").
+ * The expensive PlayerInventoryProvider scan only runs when the player's inventory reports a change,
+ * so screen init and tab opening become plain list lookups.
+ */
+public class EquippedBackpackIndex {
+    // Curios contents don't touch the vanilla inventory counter, so poll them at a low rate when Curios is present
+    private static final int CURIOS_RESCAN_TICKS = 20;
+    private static final boolean CURIOS_LOADED = ModList.get().isLoaded("curios");
+    private static final String CONTENTS_UUID_TAG = "contentsUuid";
+
+    public static class Entry {
+        public final String inventoryName;
+        public final String identifier;
+        public final int slot;
+        public final ItemStack stack;
+        public final UUID storageUuid; // Sophisticated Backpacks storage id, null until the backpack was first opened
+
+        public Entry(String inventoryName, String identifier, int slot, ItemStack stack) {
+            this.inventoryName = inventoryName;
+            this.identifier = identifier;
+            this.slot = slot;
+            this.stack = stack;
+            this.storageUuid = getStorageUuid(stack);
+        }
+
+        /**
+         * Checks if both entries point at the same inventory slot.
+         */
+        public boolean sameLocation(Entry other) {
+            return slot == other.slot
+                && inventoryName.equals(other.inventoryName)
+                && identifier.equals(other.identifier);
+        }
+
+        private boolean sameAs(Entry other) {
+            return sameLocation(other) && ItemStack.matches(stack, other.stack);
+        }
+    }
+
+    private static List<Entry> entries = Collections.emptyList();
+    private static Player indexedPlayer = null;
+    private static int indexedInventoryVersion = -1;
+    private static int ticksSinceRescan = 0;
+
+    /**
+     * Gets the equipped backpacks, rescanning first only if the inventory changed since the last scan.
+     * @param player The local player.
+     * @return An unmodifiable list of equipped backpacks in scan order.
+     */
+    public static List<Entry> getEntries(Player player) {
+        refreshIfStale(player);
+        return entries;
+    }
+
+    /**
+     * Called once per client tick. Rescans when the inventory changed (or periodically for Curios).
+     * @param player The local player.
+     * @return True if the set of equipped backpacks changed.
+     */
+    public static boolean tick(Player player) {
+        ticksSinceRescan++;
+        return refreshIfStale(player);
+    }
+
+    /**
+     * Rescans the player's inventories unconditionally.
+     * @return True if the set of equipped backpacks changed.
+     */
+    public static boolean rescan(Player player) {
+        TabMetrics.increment(TabMetrics.INDEX_RESCANS);
+        long startNanos = TabMetrics.startTimer();
+        indexedPlayer = player;
+        indexedInventoryVersion = player.getInventory().getTimesChanged();
+        ticksSinceRescan = 0;
+
+        List<Entry> found = new ArrayList<>();
+        try {
+            PlayerInventoryProvider.get().runOnBackpacks(player, (backpack, inventoryName, identifier, slot) -> {
+                if (!"main".equals(inventoryName)) {
+                    found.add(new Entry(inventoryName, identifier, slot, backpack));
+                }
+                return false; // Visit every handler
+            });
+        } catch (Exception e) {
+            LOGGER.error("Error scanning equipped backpacks: {}", e.getMessage());
+        }
+        TabMetrics.stopTimer(TabMetrics.INDEX_SCAN, startNanos);
+
+        if (isSame(entries, found)) {
+            return false;
+        }
+        entries = Collections.unmodifiableList(found);
+        return true;
+    }
+
+    /**
+     * Forgets the indexed backpacks, e.g. when the player leaves the world.
+     */
+    public static void clear() {
+        entries = Collections.emptyList();
+        indexedPlayer = null;
+        indexedInventoryVersion = -1;
+    }
+
+    /**
+     * Reads the storage UUID Sophisticated Backpacks keeps in the backpack's NBT.
+     * @return The UUID, or null if the backpack has never been opened.
+     */
+    public static UUID getStorageUuid(ItemStack backpack) {
+        CompoundTag tag = backpack.getTag();
+        return tag != null && tag.hasUUID(CONTENTS_UUID_TAG) ? tag.getUUID(CONTENTS_UUID_TAG) : null;
+    }
+
+    private static boolean refreshIfStale(Player player) {
+        boolean stale = player != indexedPlayer
+            || player.getInventory().getTimesChanged() != indexedInventoryVersion
+            || (CURIOS_LOADED && ticksSinceRescan >= CURIOS_RESCAN_TICKS);
+        return stale && rescan(player);
+    }
+
+    private static boolean isSame(List<Entry> previous, List<Entry> current) {
+        if (previous.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < previous.size(); i++) {
+            if (!previous.get(i).sameAs(current.get(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,92 @@
+package com.yukami.backpacktab.client.util;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.client.gui.screens.inventory.InventoryScreen;
+import net.minecraft.client.multiplayer.ClientLevel;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.client.event.ClientPlayerNetworkEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+
+/**
+ * Keeps one inventory screen that every switch to the player tab reuses, so switching back and forth
+ * doesn't rebuild the screen and its recipe book each time. The screen is built ahead of the first
+ * switch and dropped when the player respawns, changes dimension (both replace the local player and
+ * level) or the GUI scale changes. Only construction is saved: {@code Screen.init} fires the Forge init
+ * events, so it still runs inside {@code setScreen} on every switch.
+ */
+@Mod.EventBusSubscriber(modid = "yukamibackpacktab", bus = Mod.EventBusSubscriber.Bus.FORGE, value = Dist.CLIENT)
+public class InventoryScreenCache {
+    private static InventoryScreen cached = null;
+    private static LocalPlayer cachedPlayer = null;
+    private static ClientLevel cachedLevel = null;
+    private static double cachedGuiScale = 0;
+    private static boolean shown = false; // The cached screen has been opened at least once
+    private static boolean reused = false; // The last screen handed out had been opened before
+
+    /**
+     * Builds the screen for the player unless a valid one is already cached.
+     */
+    public static void prepare(LocalPlayer player) {
+        if (!isValidFor(player)) {
+            build(player);
+        }
+    }
+
+    /**
+     * Returns the cached screen for the player, building it first if it's missing or stale.
+     */
+    public static InventoryScreen take(LocalPlayer player) {
+        if (!isValidFor(player)) {
+            build(player);
+        }
+        reused = shown;
+        shown = true;
+        return cached;
+    }
+
+    /**
+     * Checks whether the screen is the cached one opened again, rather than a newly built screen.
+     */
+    public static boolean isReused(Screen screen) {
+        return reused && screen == cached;
+    }
+
+    public static void clear() {
+        cached = null;
+        cachedPlayer = null;
+        cachedLevel = null;
+        shown = false;
+        reused = false;
+    }
+
+    private static boolean isValidFor(LocalPlayer player) {
+        Minecraft minecraft = Minecraft.getInstance();
+        return cached != null
+            && cachedPlayer == player
+            && cachedLevel == minecraft.level
+            && cachedGuiScale == minecraft.getWindow().getGuiScale();
+    }
+
+    private static void build(LocalPlayer player) {
+        Minecraft minecraft = Minecraft.getInstance();
+        cached = new InventoryScreen(player);
+        cachedPlayer = player;
+        cachedLevel = minecraft.level;
+        cachedGuiScale = minecraft.getWindow().getGuiScale();
+        shown = false;
+        reused = false;
+    }
+
+    @SubscribeEvent
+    public static void onRespawn(ClientPlayerNetworkEvent.Clone event) {
+        clear(); // Fired for respawns and dimension changes
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        clear();
+    }
+}
@@ -0,0 +1,85 @@
+package com.yukami.backpacktab.client.util;
+
+import com.yukami.backpacktab.client.metrics.TabMetrics;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Finds container block entities within reach, used to offer every reachable container as a tab.
+ * This is a bounded scan rather than an index: the reach box spans at most 2x2 chunks, and only their
+ * block entity maps are walked, so block entities added or removed since the last query are always seen.
+ * Containers without a block entity (e.g. plain additional blocks) are not discovered.
+ */
+public class NearbyContainerScan {
+    // Same reach InventoryTabManager.isBlockStillValid uses (8 blocks, 64 squared)
+    private static final double REACH = 8.0;
+
+    private static class Candidate {
+        final BlockPos pos;
+        final double distanceSq;
+
+        Candidate(BlockPos pos, double distanceSq) {
+            this.pos = pos;
+            this.distanceSq = distanceSq;
+        }
+    }
+
+    /**
+     * Finds the containers within reach of the player, nearest first.
+     * Only the chunks overlapping the reach box are visited.
+     * @param world The client level.
+     * @param player The local player.
+     * @param max The maximum number of positions to return.
+     * @return Immutable positions of reachable containers.
+     */
+    public static List<BlockPos> findNearby(Level world, Player player, int max) {
+        if (world == null || player == null || max <= 0) {
+            return List.of();
+        }
+
+        long startNanos = TabMetrics.startTimer();
+        double x = player.getX();
+        double z = player.getZ();
+        int minChunkX = SectionPos.blockToSectionCoord(Mth.floor(x - REACH));
+        int maxChunkX = SectionPos.blockToSectionCoord(Mth.floor(x + REACH));
+        int minChunkZ = SectionPos.blockToSectionCoord(Mth.floor(z - REACH));
+        int maxChunkZ = SectionPos.blockToSectionCoord(Mth.floor(z + REACH));
+
+        List<Candidate> candidates = new ArrayList<>();
+        for (int chunkX = minChunkX; chunkX <= maxChunkX; chunkX++) {
+            for (int chunkZ = minChunkZ; chunkZ <= maxChunkZ; chunkZ++) {
+                LevelChunk chunk = world.getChunkSource().getChunk(chunkX, chunkZ, false);
+                if (chunk == null) {
+                    continue;
+                }
+                for (BlockEntity blockEntity : chunk.getBlockEntities().values()) {
+                    BlockPos pos = blockEntity.getBlockPos();
+                    // Distance first: it's cheaper than the classification and rules out most of a dense base
+                    double distanceSq = player.distanceToSqr(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5);
+                    if (distanceSq <= REACH * REACH
+                            && BlockClassificationCache.classify(world, pos, blockEntity.getBlockState()).isContainer()) {
+                        candidates.add(new Candidate(pos, distanceSq));
+                    }
+                }
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(candidate -> candidate.distanceSq));
+        List<BlockPos> result = new ArrayList<>(Math.min(max, candidates.size()));
+        for (int i = 0; i < candidates.size() && result.size() < max; i++) {
+            result.add(candidates.get(i).pos);
+        }
+        TabMetrics.stopTimer(TabMetrics.DISCOVERY_QUERY, startNanos);
+        return result;
+    }
+}
@@ -0,0 +1,192 @@
+package com.yukami.backpacktab.network;
+
+import static com.yukami.backpacktab.YukamiBackpackTab.LOGGER;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.protocol.game.ClientboundContainerClosePacket;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.InteractionHand;
+import net.minecraft.world.MenuProvider;
+import net.minecraft.world.SimpleMenuProvider;
+import net.minecraft.world.inventory.AbstractContainerMenu;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.BlockHitResult;
+import net.minecraft.world.phys.Vec3;
+import net.minecraftforge.network.NetworkEvent;
+import net.minecraftforge.network.NetworkHooks;
+import net.minecraftforge.network.PacketDistributor;
+import net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackBlock;
+import net.p3pp3rf1y.sophisticatedbackpacks.backpack.BackpackItem;
+import net.p3pp3rf1y.sophisticatedbackpacks.common.gui.BackpackContainer;
+import net.p3pp3rf1y.sophisticatedbackpacks.common.gui.BackpackContext;
+import net.p3pp3rf1y.sophisticatedbackpacks.util.PlayerInventoryProvider;
+
+import java.util.function.Supplier;
+
+/**
+ * Asks the server to switch from the currently open menu to a container block or an equipped backpack
+ * in one step, keeping the carried stack on the cursor. Replaces the close packet, interaction packet
+ * and stash/unstash clicks the client would otherwise send. Every request is answered with a
+ * {@link SwitchReplyMessage} carrying its sequence number, so the client never has to guess which screen
+ * belongs to which switch or whether the old menu is still open.
+ */
+public class SwitchContainerMessage {
+    // Padding ServerGamePacketListenerImpl.handleUseItemOn adds to the block reach
+    private static final double REACH_PADDING = 1.5;
+
+    public enum Target {
+        BLOCK,
+        BACKPACK
+    }
+
+    private final int sequence; // Client-side switch number, echoed in the reply
+    private final int sourceContainerId;
+    private final Target target;
+    private final BlockPos pos;
+    private final String inventoryName;
+    private final String identifier;
+    private final int slot;
+
+    private SwitchContainerMessage(int sequence, int sourceContainerId, Target target, BlockPos pos, String inventoryName, String identifier, int slot) {
+        this.sequence = sequence;
+        this.sourceContainerId = sourceContainerId;
+        this.target = target;
+        this.pos = pos;
+        this.inventoryName = inventoryName;
+        this.identifier = identifier;
+        this.slot = slot;
+    }
+
+    public static SwitchContainerMessage toBlock(int sequence, int sourceContainerId, BlockPos pos) {
+        return new SwitchContainerMessage(sequence, sourceContainerId, Target.BLOCK, pos, "", "", -1);
+    }
+
+    public static SwitchContainerMessage toBackpack(int sequence, int sourceContainerId, String inventoryName, String identifier, int slot) {
+        return new SwitchContainerMessage(sequence, sourceContainerId, Target.BACKPACK, BlockPos.ZERO, inventoryName, identifier, slot);
+    }
+
+    public static void encode(SwitchContainerMessage msg, FriendlyByteBuf buf) {
+        buf.writeVarInt(msg.sequence);
+        buf.writeVarInt(msg.sourceContainerId);
+        buf.writeEnum(msg.target);
+        if (msg.target == Target.BLOCK) {
+            buf.writeBlockPos(msg.pos);
+        } else {
+            buf.writeUtf(msg.inventoryName);
+            buf.writeUtf(msg.identifier);
+            buf.writeVarInt(msg.slot);
+        }
+    }
+
+    public static SwitchContainerMessage decode(FriendlyByteBuf buf) {
+        int sequence = buf.readVarInt();
+        int sourceContainerId = buf.readVarInt();
+        Target target = buf.readEnum(Target.class);
+        if (target == Target.BLOCK) {
+            return toBlock(sequence, sourceContainerId, buf.readBlockPos());
+        }
+        return toBackpack(sequence, sourceContainerId, buf.readUtf(), buf.readUtf(), buf.readVarInt());
+    }
+
+    public static void handle(SwitchContainerMessage msg, Supplier<NetworkEvent.Context> contextSupplier) {
+        ServerPlayer player = contextSupplier.get().getSender();
+        if (player != null) {
+            handleMessage(msg, player);
+        }
+    }
+
+    private static void handleMessage(SwitchContainerMessage msg, ServerPlayer player) {
+        // Reject stale requests for a menu that is no longer open
+        AbstractContainerMenu previous = player.containerMenu;
+        if (previous.containerId != msg.sourceContainerId) {
+            reject(player, msg);
+            return;
+        }
+        // Validate the target before anything is closed, so a rejected request leaves the old menu open
+        if (msg.target == Target.BLOCK ? !canOpenBlock(player, msg.pos) : !holdsBackpack(player, msg)) {
+            reject(player, msg);
+            return;
+        }
+
+        // Sent before the open packet, so the client knows the next screen is this switch's
+        TabNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), SwitchReplyMessage.accepted(msg.sequence));
+
+        // Take the cursor stack off the old menu so closing it doesn't drop or return it
+        ItemStack carried = previous.getCarried();
+        previous.setCarried(ItemStack.EMPTY);
+        if (previous != player.inventoryMenu) {
+            player.doCloseContainer();
+        }
+
+        try {
+            if (msg.target == Target.BLOCK) {
+                BlockHitResult hitResult = new BlockHitResult(Vec3.atCenterOf(msg.pos), Direction.UP, msg.pos, false);
+                player.gameMode.useItemOn(player, player.level(), player.getMainHandItem(), InteractionHand.MAIN_HAND, hitResult);
+            } else {
+                BackpackContext.Item backpackContext = new BackpackContext.Item(msg.inventoryName, msg.identifier, msg.slot);
+                NetworkHooks.openScreen(player, new SimpleMenuProvider(
+                    (windowId, inventory, menuPlayer) -> new BackpackContainer(windowId, menuPlayer, backpackContext),
+                    backpackContext.getDisplayName(player)), backpackContext::toBuffer);
+            }
+        } catch (Exception e) {
+            LOGGER.error("Error switching container for {}: {}", player.getGameProfile().getName(), e.getMessage());
+        }
+
+        AbstractContainerMenu current = player.containerMenu;
+        if (current != player.inventoryMenu) {
+            // Same tick as the open, so the client sees the new menu with the stack still on the cursor
+            current.setCarried(carried);
+            current.broadcastChanges();
+        } else if (previous == player.inventoryMenu) {
+            // Nothing opened from the player inventory: just put the stack back on the cursor
+            previous.setCarried(carried);
+            reject(player, msg);
+        } else {
+            // Nothing opened: close the client's stale screen and give the stack back
+            player.connection.send(new ClientboundContainerClosePacket(previous.containerId));
+            if (!player.getInventory().add(carried)) {
+                player.drop(carried, false);
+            }
+            reject(player, msg);
+        }
+    }
+
+    private static void reject(ServerPlayer player, SwitchContainerMessage msg) {
+        TabNetwork.CHANNEL.send(PacketDistributor.PLAYER.with(() -> player), SwitchReplyMessage.rejected(msg.sequence));
+    }
+
+    /**
+     * Runs the checks vanilla runs before a block interaction and only accepts containers, so the
+     * message can't be used to place or use items on arbitrary blocks.
+     */
+    private static boolean canOpenBlock(ServerPlayer player, BlockPos pos) {
+        ServerLevel level = player.serverLevel();
+        if (!level.isLoaded(pos) || pos.getY() >= level.getMaxBuildHeight() || !level.getWorldBorder().isWithinBounds(pos)) {
+            return false;
+        }
+        if (!player.canReach(pos, REACH_PADDING) || !level.mayInteract(player, pos)) {
+            return false;
+        }
+        // Sneaking with an item in hand uses the item instead of the block
+        if (player.isSecondaryUseActive() && !player.getMainHandItem().isEmpty()) {
+            return false;
+        }
+        BlockState state = level.getBlockState(pos);
+        return state.getBlock() instanceof BackpackBlock
+            || state.getMenuProvider(level, pos) != null
+            || level.getBlockEntity(pos) instanceof MenuProvider;
+    }
+
+    /**
+     * Checks that the named inventory slot really holds a backpack, as Sophisticated Backpacks' own open message does.
+     */
+    private static boolean holdsBackpack(ServerPlayer player, SwitchContainerMessage msg) {
+        return PlayerInventoryProvider.get().getPlayerInventoryHandler(msg.inventoryName)
+            .map(handler -> handler.getStackInSlot(player, msg.identifier, msg.slot).getItem() instanceof BackpackItem)
+            .orElse(false);
+    }
+}
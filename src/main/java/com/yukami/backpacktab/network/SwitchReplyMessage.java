@@ -0,0 +1,54 @@
+package com.yukami.backpacktab.network;
+
+import com.yukami.backpacktab.client.gui.InventoryTabManager;
+
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.network.NetworkEvent;
+
+import java.util.function.Supplier;
+
+/**
+ * The server's answer to a {@link SwitchContainerMessage}, echoing its sequence number.
+ * An accepted reply is sent right before the target's open packet, so the client can tell the screen of
+ * the switch it is waiting for from a late answer to an earlier one. A rejected reply means nothing was
+ * opened, so the client ends the switch right away instead of waiting for the timeout. Whether the old
+ * menu is still open is up to the server: if it was closed, a close packet was sent first.
+ */
+public class SwitchReplyMessage {
+    private final int sequence;
+    private final boolean accepted;
+
+    private SwitchReplyMessage(int sequence, boolean accepted) {
+        this.sequence = sequence;
+        this.accepted = accepted;
+    }
+
+    public static SwitchReplyMessage accepted(int sequence) {
+        return new SwitchReplyMessage(sequence, true);
+    }
+
+    public static SwitchReplyMessage rejected(int sequence) {
+        return new SwitchReplyMessage(sequence, false);
+    }
+
+    public static void encode(SwitchReplyMessage msg, FriendlyByteBuf buf) {
+        buf.writeVarInt(msg.sequence);
+        buf.writeBoolean(msg.accepted);
+    }
+
+    public static SwitchReplyMessage decode(FriendlyByteBuf buf) {
+        return new SwitchReplyMessage(buf.readVarInt(), buf.readBoolean());
+    }
+
+    public static void handle(SwitchReplyMessage msg, Supplier<NetworkEvent.Context> contextSupplier) {
+        DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> {
+            if (msg.accepted) {
+                InventoryTabManager.onSwitchAccepted(msg.sequence);
+            } else {
+                InventoryTabManager.onSwitchRejected(msg.sequence);
+            }
+        });
+    }
+}
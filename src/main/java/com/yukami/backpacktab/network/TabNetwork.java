@@ -0,0 +1,46 @@
+package com.yukami.backpacktab.network;
+
+import com.yukami.backpacktab.YukamiBackpackTab;
+
+import net.minecraft.network.Connection;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.NetworkRegistry;
+import net.minecraftforge.network.simple.SimpleChannel;
+
+/**
+ * Optional network channel between the client and a server that also runs this mod.
+ * Either side may be missing the mod; clients fall back to the vanilla packet sequence in that case.
+ */
+public class TabNetwork {
+    private static final String PROTOCOL_VERSION = "2";
+
+    public static final SimpleChannel CHANNEL = NetworkRegistry.newSimpleChannel(
+        ResourceLocation.fromNamespaceAndPath(YukamiBackpackTab.MODID, "main"),
+        () -> PROTOCOL_VERSION,
+        NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION),
+        NetworkRegistry.acceptMissingOr(PROTOCOL_VERSION)
+    );
+
+    public static void register() {
+        CHANNEL.messageBuilder(SwitchContainerMessage.class, 0, NetworkDirection.PLAY_TO_SERVER)
+            .encoder(SwitchContainerMessage::encode)
+            .decoder(SwitchContainerMessage::decode)
+            .consumerMainThread(SwitchContainerMessage::handle)
+            .add();
+        CHANNEL.messageBuilder(SwitchReplyMessage.class, 1, NetworkDirection.PLAY_TO_CLIENT)
+            .encoder(SwitchReplyMessage::encode)
+            .decoder(SwitchReplyMessage::decode)
+            .consumerMainThread(SwitchReplyMessage::handle)
+            .add();
+    }
+
+    /**
+     * Checks if the other end of the connection advertised this mod's channel.
+     * @param connection The client's connection to the server.
+     * @return True if the server understands {@link SwitchContainerMessage}.
+     */
+    public static boolean isServerSupported(Connection connection) {
+        return connection != null && CHANNEL.isRemotePresent(connection);
+    }
+}